@@ -0,0 +1,796 @@
+package appDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Holds the ascending line numbers on which a word appears without boxing
+ * them. Lines are appended in amortized constant time and a line equal to the
+ * last one is ignored, so a word that appears several times on one line is
+ * listed once.
+ *
+ * As in a Roaring bitmap, the lines are split into chunks of 65536 by their
+ * high 16 bits, and each chunk keeps the low 16 bits of its lines in one of
+ * two forms:
+ * - a sorted char array, using 2 bytes per line;
+ * - a bitmap with one bit for every line of the chunk up to its last one,
+ *   used once it is smaller than the array, as it is for words on most lines.
+ *
+ * A chunk switches form by itself when it has to grow and the other form
+ * would be smaller, so a chunk never takes more than 2 bytes per line, nor
+ * more than the 8 KB of a full bitmap, plus the growth of its array. A line
+ * far from the others starts a chunk of its own instead of stretching a
+ * bitmap. compact() trims every chunk to its lines in the smaller form. Two
+ * bitmaps are combined a word of 64 lines at a time, which makes union and
+ * intersection of frequent words fast.
+ */
+public class Postings implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int LOW_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int BITMAP_LONGS = (1 << CHUNK_BITS) / Long.SIZE;
+
+    private transient Chunk[] chunks; // Chunks in ascending order of key
+    private transient int chunkCount;
+    private transient int count;
+    private transient int last;       // Last line added, 0 when empty
+    private transient boolean compact; // True while every chunk is trimmed
+
+    /**
+     * Constructs an empty posting list.
+     */
+    public Postings() {
+        chunks = new Chunk[1];
+    }
+
+    /**
+     * Constructs a posting list holding a single line.
+     *
+     * @param line the first line
+     */
+    public Postings(int line) {
+        this();
+        add(line);
+    }
+
+    /**
+     * Appends a line, ignoring it if it equals the last line added.
+     *
+     * @param line the line to add, not negative and not less than the last
+     * line added
+     * @throws IllegalArgumentException if the line is negative or less than
+     * the last line added
+     */
+    public void add(int line) throws IllegalArgumentException {
+        if (count > 0 && line == last) {
+            return;
+        }
+        if (line < 0 || (count > 0 && line < last)) {
+            throw new IllegalArgumentException("Lines must be added in ascending order: " + line + " after " + last);
+        }
+        int key = line >>> CHUNK_BITS;
+        if (chunkCount == 0 || chunks[chunkCount - 1].key != key) {
+            Chunk chunk = new Chunk(key);
+            chunk.array = new char[INITIAL_CAPACITY];
+            append(chunk);
+        }
+        chunks[chunkCount - 1].add(line & LOW_MASK);
+        last = line;
+        count++;
+        compact = false;
+    }
+
+    /**
+     * Returns the number of lines.
+     *
+     * @return the number of lines
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Checks whether the postings are held in a compact form.
+     *
+     * @return true if every chunk is trimmed to its lines, as after compact,
+     * false if lines have been added since
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Checks whether any chunk of the postings is held as a bitmap.
+     *
+     * @return true if at least one chunk is a bitmap, false otherwise
+     */
+    public boolean isBitmap() {
+        for (int i = 0; i < chunkCount; i++) {
+            if (chunks[i].bitmap != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves every chunk to the smaller of the array and the bitmap form and
+     * trims the storage to its contents.
+     */
+    public void compact() {
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i].trim();
+        }
+        chunks = Arrays.copyOf(chunks, Math.max(chunkCount, 1));
+        compact = true;
+    }
+
+    /**
+     * Returns the lines in ascending order.
+     *
+     * @return a new array holding the lines
+     */
+    public int[] toArray() {
+        int[] result = new int[count];
+        int offset = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            offset = chunks[i].copyLines(result, offset);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new, compact posting list holding the lines of both lists
+     * once each, in ascending order. Chunks found in only one list are
+     * copied, and each pair of chunks with the same key is combined in the
+     * smaller form.
+     *
+     * @param other the posting list to combine with this one
+     * @return the union of both posting lists
+     */
+    public Postings union(Postings other) {
+        Postings union = new Postings();
+        union.chunks = new Chunk[Math.max(chunkCount + other.chunkCount, 1)];
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount || j < other.chunkCount) {
+            if (j == other.chunkCount || (i < chunkCount && chunks[i].key < other.chunks[j].key)) {
+                union.append(chunks[i++].copy());
+            } else if (i == chunkCount || other.chunks[j].key < chunks[i].key) {
+                union.append(other.chunks[j++].copy());
+            } else {
+                union.append(Chunk.union(chunks[i++], other.chunks[j++]));
+            }
+        }
+        return union.settle();
+    }
+
+    /**
+     * Returns a new, compact posting list holding the lines that appear in
+     * both lists, in ascending order. Only chunks with the same key are
+     * intersected, bitmaps a word of 64 lines at a time.
+     *
+     * @param other the posting list to intersect with this one
+     * @return the intersection of both posting lists
+     */
+    public Postings intersect(Postings other) {
+        Postings intersection = new Postings();
+        intersection.chunks = new Chunk[Math.max(Math.min(chunkCount, other.chunkCount), 1)];
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (chunks[i].key < other.chunks[j].key) {
+                i++;
+            } else if (chunks[i].key > other.chunks[j].key) {
+                j++;
+            } else {
+                Chunk chunk = Chunk.intersect(chunks[i++], other.chunks[j++]);
+                if (chunk.size > 0) {
+                    intersection.append(chunk);
+                }
+            }
+        }
+        return intersection.settle();
+    }
+
+    /**
+     * Returns the number of bytes encode will write.
+     *
+     * @return the encoded length in bytes
+     */
+    public int encodedSize() {
+        int size = varintSize(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            size += chunks[i].encodedSize();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the postings at the current position of the buffer as variable
+     * length numbers: the number of chunks, then for each chunk its key and a
+     * header. An array chunk has the number of lines shifted left by one as
+     * its header, followed by the gaps between its low 16 bits. A bitmap
+     * chunk has the number of longs shifted left by one with the low bit set,
+     * followed by the longs.
+     *
+     * @param buffer the buffer to write to
+     */
+    public void encode(ByteBuffer buffer) {
+        putVarint(buffer, chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i].encode(buffer);
+        }
+    }
+
+    /**
+     * Reads postings written by encode at the current position of the buffer.
+     * Every chunk keeps the form it was written in, trimmed to its lines.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded posting list
+     */
+    public static Postings decode(ByteBuffer buffer) {
+        Postings postings = new Postings();
+        int chunkCount = getVarint(buffer);
+        postings.chunks = new Chunk[Math.max(chunkCount, 1)];
+        for (int i = 0; i < chunkCount; i++) {
+            postings.append(Chunk.decode(buffer));
+        }
+        return postings.settle();
+    }
+
+    /**
+     * Writes the postings to a stream as the length of their encoding
+     * followed by the encoding written by encode.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(DataOutput out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize());
+        encode(buffer);
+        writeVarint(out, buffer.capacity());
+        out.write(buffer.array());
+    }
+
+    /**
+     * Reads postings written by writeTo.
+     *
+     * @param in the stream to read from
+     * @return the postings that were read
+     * @throws IOException if an I/O error occurs
+     */
+    static Postings readFrom(DataInput in) throws IOException {
+        byte[] encoded = new byte[readVarint(in)];
+        in.readFully(encoded);
+        return decode(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * Writes a non-negative value seven bits at a time, setting the high bit
+     * of every byte but the last. Words use it for their own numbers.
+     *
+     * @param out the stream to write to
+     * @param value the value to write
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeVarint(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads a value written by writeVarint.
+     *
+     * @param in the stream to read from
+     * @return the value that was read
+     * @throws IOException if an I/O error occurs
+     */
+    static int readVarint(DataInput in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = in.readByte();
+            value |= (next & 0x7F) << shift;
+            shift += 7;
+        } while (next < 0);
+        return value;
+    }
+
+    /**
+     * Returns the lines in the same format as a list, such as "[1, 2]".
+     *
+     * @return the string representation of the lines
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Adds a chunk after the last one, growing the array of chunks if needed.
+     *
+     * @param chunk the chunk to add, with a key greater than the last one
+     */
+    private void append(Chunk chunk) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount + (chunkCount >> 1) + 1);
+        }
+        chunks[chunkCount++] = chunk;
+    }
+
+    /**
+     * Counts the lines of the trimmed chunks that were appended and finds the
+     * last one.
+     *
+     * @return these postings, marked compact
+     */
+    private Postings settle() {
+        count = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            count += chunks[i].size;
+        }
+        if (chunkCount > 0) {
+            Chunk lastChunk = chunks[chunkCount - 1];
+            last = lastChunk.key << CHUNK_BITS | lastChunk.highest();
+        }
+        compact = true;
+        return this;
+    }
+
+    /**
+     * Returns the number of bytes a bitmap holding the given low 16 bits
+     * needs.
+     *
+     * @param low the highest low 16 bits
+     * @return the size of the bitmap in bytes
+     */
+    private static int bitmapSize(int low) {
+        return Long.BYTES * ((low >>> 6) + 1);
+    }
+
+    /**
+     * Returns the number of bytes putVarint writes for a value.
+     *
+     * @param value the non-negative value to measure
+     * @return the encoded length of the value in bytes
+     */
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes a non-negative value seven bits at a time, setting the high bit
+     * of every byte but the last.
+     *
+     * @param buffer the buffer to write to
+     * @param value the value to write
+     */
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a value written by putVarint.
+     *
+     * @param buffer the buffer to read from
+     * @return the value that was read
+     */
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = buffer.get();
+            value |= (next & 0x7F) << shift;
+            shift += 7;
+        } while (next < 0);
+        return value;
+    }
+
+    /**
+     * Writes the postings with writeTo.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeTo(out);
+    }
+
+    /**
+     * Reads postings written by writeObject, keeping them compact.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        Postings read = readFrom(in);
+        chunks = read.chunks;
+        chunkCount = read.chunkCount;
+        count = read.count;
+        last = read.last;
+        compact = read.compact;
+    }
+
+    /**
+     * The lines of one chunk, which share their high 16 bits, held either as
+     * a sorted array or as a bitmap of their low 16 bits.
+     */
+    private static final class Chunk {
+
+        final int key;  // High 16 bits of every line of the chunk
+        char[] array;   // Low 16 bits in ascending order in the array form, null otherwise
+        long[] bitmap;  // One bit per low 16 bits in the bitmap form, null otherwise
+        int size;       // Number of lines
+
+        /**
+         * Constructs an empty chunk with no storage.
+         *
+         * @param key the high 16 bits of the lines of the chunk
+         */
+        Chunk(int key) {
+            this.key = key;
+        }
+
+        /**
+         * Appends the low 16 bits of a line greater than the last one, first
+         * switching to the other form if the chunk has to grow and the other
+         * form would be smaller.
+         *
+         * @param low the low 16 bits of the line
+         */
+        void add(int low) {
+            if (array != null && size == array.length) {
+                if (bitmapSize(low) < Character.BYTES * (size + 1)) {
+                    toBitmap(low);
+                } else {
+                    array = Arrays.copyOf(array, size + (size >> 1) + 1);
+                }
+            } else if (bitmap != null && (low >>> 6) >= bitmap.length) {
+                if (Character.BYTES * (size + 1) < bitmapSize(low)) {
+                    toArray(size + (size >> 1) + 1);
+                } else {
+                    bitmap = Arrays.copyOf(bitmap, Math.min(Math.max((low >>> 6) + 1, bitmap.length + (bitmap.length >> 1)), BITMAP_LONGS));
+                }
+            }
+            if (bitmap != null) {
+                bitmap[low >>> 6] |= 1L << low;
+            } else {
+                array[size] = (char) low;
+            }
+            size++;
+        }
+
+        /**
+         * Returns the highest low 16 bits of the chunk, which is not empty.
+         *
+         * @return the low 16 bits of the last line
+         */
+        int highest() {
+            if (array != null) {
+                return array[size - 1];
+            }
+            int index = bitmap.length - 1;
+            while (bitmap[index] == 0) {
+                index--;
+            }
+            return (index << 6) + 63 - Long.numberOfLeadingZeros(bitmap[index]);
+        }
+
+        /**
+         * Checks whether the chunk holds the given low 16 bits.
+         *
+         * @param low the low 16 bits to look for
+         * @return true if the chunk holds them, false otherwise
+         */
+        boolean contains(int low) {
+            if (bitmap != null) {
+                return (low >>> 6) < bitmap.length && (bitmap[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, size, (char) low) >= 0;
+        }
+
+        /**
+         * Writes the lines of the chunk into an array.
+         *
+         * @param target the array to write to
+         * @param offset the index of the first line to write
+         * @return the index after the written lines
+         */
+        int copyLines(int[] target, int offset) {
+            int high = key << CHUNK_BITS;
+            if (array != null) {
+                for (int i = 0; i < size; i++) {
+                    target[offset++] = high | array[i];
+                }
+                return offset;
+            }
+            for (int index = 0; index < bitmap.length; index++) {
+                long word = bitmap[index];
+                while (word != 0) {
+                    target[offset++] = high | ((index << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        /**
+         * Moves to the smaller of the two forms, trimmed to the lines. The
+         * storage is always replaced, so a trimmed chunk shares nothing with
+         * the chunk it was copied from.
+         */
+        void trim() {
+            int highest = highest();
+            if (bitmapSize(highest) < Character.BYTES * size) {
+                if (bitmap == null) {
+                    toBitmap(highest);
+                } else {
+                    bitmap = Arrays.copyOf(bitmap, (highest >>> 6) + 1);
+                }
+            } else {
+                toArray(size);
+            }
+        }
+
+        /**
+         * Returns a trimmed copy of the chunk.
+         *
+         * @return a chunk holding the same lines
+         */
+        Chunk copy() {
+            Chunk copy = new Chunk(key);
+            copy.array = array;
+            copy.bitmap = bitmap;
+            copy.size = size;
+            copy.trim();
+            return copy;
+        }
+
+        /**
+         * Moves the lines into a bitmap just long enough to hold the given
+         * low 16 bits.
+         *
+         * @param low the highest low 16 bits the bitmap has to hold
+         */
+        private void toBitmap(int low) {
+            long[] bits = new long[(low >>> 6) + 1];
+            for (int i = 0; i < size; i++) {
+                bits[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+            bitmap = bits;
+        }
+
+        /**
+         * Moves the lines into an array of the given capacity.
+         *
+         * @param capacity the length of the array, at least the number of
+         * lines
+         */
+        private void toArray(int capacity) {
+            char[] lows = new char[capacity];
+            if (array != null) {
+                System.arraycopy(array, 0, lows, 0, size);
+            } else {
+                int i = 0;
+                for (int index = 0; i < size; index++) {
+                    long word = bitmap[index];
+                    while (word != 0) {
+                        lows[i++] = (char) ((index << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+            bitmap = null;
+            array = lows;
+        }
+
+        /**
+         * Counts the lines of the bitmap.
+         */
+        private void recount() {
+            size = 0;
+            for (long word : bitmap) {
+                size += Long.bitCount(word);
+            }
+        }
+
+        /**
+         * Returns the number of bytes encode will write for the chunk.
+         *
+         * @return the encoded length in bytes
+         */
+        int encodedSize() {
+            if (bitmap != null) {
+                int length = (highest() >>> 6) + 1;
+                return varintSize(key) + varintSize(length << 1 | 1) + Long.BYTES * length;
+            }
+            int encoded = varintSize(key) + varintSize(size << 1);
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                encoded += varintSize(array[i] - previous);
+                previous = array[i];
+            }
+            return encoded;
+        }
+
+        /**
+         * Writes the chunk at the current position of the buffer.
+         *
+         * @param buffer the buffer to write to
+         */
+        void encode(ByteBuffer buffer) {
+            putVarint(buffer, key);
+            if (bitmap != null) {
+                int length = (highest() >>> 6) + 1;
+                putVarint(buffer, length << 1 | 1);
+                for (int index = 0; index < length; index++) {
+                    buffer.putLong(bitmap[index]);
+                }
+                return;
+            }
+            putVarint(buffer, size << 1);
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                putVarint(buffer, array[i] - previous);
+                previous = array[i];
+            }
+        }
+
+        /**
+         * Reads a chunk written by encode at the current position of the
+         * buffer.
+         *
+         * @param buffer the buffer to read from
+         * @return the chunk that was read
+         */
+        static Chunk decode(ByteBuffer buffer) {
+            Chunk chunk = new Chunk(getVarint(buffer));
+            int header = getVarint(buffer);
+            if ((header & 1) != 0) {
+                chunk.bitmap = new long[header >>> 1];
+                for (int index = 0; index < chunk.bitmap.length; index++) {
+                    chunk.bitmap[index] = buffer.getLong();
+                }
+                chunk.recount();
+                return chunk;
+            }
+            chunk.size = header >>> 1;
+            chunk.array = new char[chunk.size];
+            int low = 0;
+            for (int i = 0; i < chunk.size; i++) {
+                low += getVarint(buffer);
+                chunk.array[i] = (char) low;
+            }
+            return chunk;
+        }
+
+        /**
+         * Returns a trimmed chunk holding the lines of two chunks with the
+         * same key. Bitmaps are combined a word at a time, and a bitmap takes
+         * the lines of an array by setting their bits.
+         *
+         * @param one a chunk
+         * @param other a chunk with the same key
+         * @return the union of both chunks
+         */
+        static Chunk union(Chunk one, Chunk other) {
+            Chunk union = new Chunk(one.key);
+            if (one.bitmap != null || other.bitmap != null) {
+                union.bitmap = new long[(Math.max(one.highest(), other.highest()) >>> 6) + 1];
+                one.setBits(union.bitmap);
+                other.setBits(union.bitmap);
+                union.recount();
+            } else {
+                union.array = new char[one.size + other.size];
+                int i = 0;
+                int j = 0;
+                while (i < one.size || j < other.size) {
+                    if (j == other.size || (i < one.size && one.array[i] < other.array[j])) {
+                        union.array[union.size++] = one.array[i++];
+                    } else if (i == one.size || other.array[j] < one.array[i]) {
+                        union.array[union.size++] = other.array[j++];
+                    } else {
+                        union.array[union.size++] = one.array[i++];
+                        j++;
+                    }
+                }
+            }
+            union.trim();
+            return union;
+        }
+
+        /**
+         * Returns a trimmed chunk holding the lines found in both of two
+         * chunks with the same key, which may be empty. Bitmaps are combined
+         * a word at a time, and the lines of an array are probed in a bitmap.
+         *
+         * @param one a chunk
+         * @param other a chunk with the same key
+         * @return the intersection of both chunks
+         */
+        static Chunk intersect(Chunk one, Chunk other) {
+            Chunk intersection = new Chunk(one.key);
+            if (one.bitmap != null && other.bitmap != null) {
+                intersection.bitmap = new long[Math.min(one.bitmap.length, other.bitmap.length)];
+                for (int index = 0; index < intersection.bitmap.length; index++) {
+                    intersection.bitmap[index] = one.bitmap[index] & other.bitmap[index];
+                }
+                intersection.recount();
+            } else if (one.bitmap != null || other.bitmap != null) {
+                Chunk bits = one.bitmap != null ? one : other;
+                Chunk list = bits == one ? other : one;
+                intersection.array = new char[list.size];
+                for (int i = 0; i < list.size; i++) {
+                    if (bits.contains(list.array[i])) {
+                        intersection.array[intersection.size++] = list.array[i];
+                    }
+                }
+            } else {
+                intersection.array = new char[Math.min(one.size, other.size)];
+                int i = 0;
+                int j = 0;
+                while (i < one.size && j < other.size) {
+                    if (one.array[i] < other.array[j]) {
+                        i++;
+                    } else if (one.array[i] > other.array[j]) {
+                        j++;
+                    } else {
+                        intersection.array[intersection.size++] = one.array[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            if (intersection.size > 0) {
+                intersection.trim();
+            }
+            return intersection;
+        }
+
+        /**
+         * Sets the bits of the lines of the chunk in a bitmap.
+         *
+         * @param bits the bitmap, long enough for the highest line
+         */
+        private void setBits(long[] bits) {
+            if (bitmap != null) {
+                for (int index = 0; index < Math.min(bitmap.length, bits.length); index++) {
+                    bits[index] |= bitmap[index];
+                }
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                bits[array[i] >>> 6] |= 1L << array[i];
+            }
+        }
+    }
+}
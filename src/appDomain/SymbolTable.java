@@ -0,0 +1,108 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Maps the words and filenames of a repository to dense int identifiers,
+ * keeping a single copy of each string. Words hold the shared copies, so a
+ * filename repeated by thousands of words is stored once, and two words of
+ * the same table can be told equal or different by comparing identifiers.
+ *
+ * Each repository has its own table, which the Words of the repository
+ * refer to and which is written once ahead of them in the same stream. A
+ * table only grows while words are interned into it, so words that are
+ * only used to search a tree are created without one, and a repository that
+ * drops words can move the words it keeps to a new table.
+ */
+public class SymbolTable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient ArrayList<String> symbols = new ArrayList<>();
+    private transient HashMap<String, Integer> ids = new HashMap<>();
+
+    /**
+     * Returns the identifier of a string, adding the string if it is new.
+     *
+     * @param symbol the string to look up
+     * @return the identifier of the string
+     */
+    public synchronized int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            id = symbols.size();
+            symbols.add(symbol);
+            ids.put(symbol, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the identifier of a string without adding it.
+     *
+     * @param symbol the string to look up
+     * @return the identifier of the string, or -1 if it is not in the table
+     */
+    public synchronized int indexOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the string with the given identifier.
+     *
+     * @param id an identifier returned by intern
+     * @return the shared copy of the string
+     * @throws IndexOutOfBoundsException if no string has the identifier
+     */
+    public synchronized String get(int id) throws IndexOutOfBoundsException {
+        return symbols.get(id);
+    }
+
+    /**
+     * Returns the number of strings in the table.
+     *
+     * @return the number of strings
+     */
+    public synchronized int size() {
+        return symbols.size();
+    }
+
+    /**
+     * Writes the number of strings followed by the strings in identifier
+     * order.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(symbols.size());
+        for (String symbol : symbols) {
+            out.writeObject(symbol);
+        }
+    }
+
+    /**
+     * Reads the strings written by writeObject, giving each one back the
+     * identifier it was written with.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        symbols = new ArrayList<>(count);
+        ids = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            intern((String) in.readObject());
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Keeps the words of the repository ranked by how often they appear, both
+ * over all files and within each file, so that the most frequent words can be
+ * reported without visiting the whole vocabulary. The ranking is updated as
+ * words are recorded during ingestion, each update costing O(log n), and the
+ * top K words are then read off the front of the ranking in O(K) time.
+ *
+ * Words are grouped without regard to case, like Word.compareTo does, and are
+ * reported with the spelling they were first recorded with. The rankings only
+ * hold counts keyed by the identifiers of the words and filenames in the
+ * SymbolTable of the repository, so no string is kept twice, and the
+ * overall ranking is not written but summed from the files when read.
+ */
+public class TopWords implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private SymbolTable symbols; // Table the identifiers belong to
+    private transient Ranking global;
+    private transient LinkedHashMap<Integer, Ranking> files; // By filename identifier, in recording order
+
+    /**
+     * Constructs empty rankings for the words of a SymbolTable.
+     *
+     * @param symbols the table of the repository
+     */
+    public TopWords(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.global = new Ranking();
+        this.files = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds the occurrences of a word in a file to the rankings.
+     *
+     * @param word the word, holding the number of new occurrences as its
+     * frequency
+     */
+    public void record(Word word) {
+        add(symbols.intern(word.getFilename()), symbols.intern(word.getKey()), symbols.intern(word.getWord()), word.getFrequency());
+    }
+
+    /**
+     * Forgets a file, taking its occurrences out of the overall ranking.
+     *
+     * @param filename the file to forget
+     * @return the words the file contained, or an empty list if the file has
+     * not been recorded
+     */
+    public List<String> evict(String filename) {
+        Ranking ranking = files.remove(symbols.indexOf(filename));
+        ArrayList<String> words = new ArrayList<>();
+        if (ranking != null) {
+            for (Count count : ranking.ranking) {
+                global.add(count.keyId, count.wordId, -count.frequency);
+                words.add(symbols.get(count.wordId));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the most frequent words over all files.
+     *
+     * @param count the maximum number of words to return
+     * @return up to count words, most frequent first
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public List<Entry> top(int count) throws IllegalArgumentException {
+        checkCount(count);
+        return global.top(count);
+    }
+
+    /**
+     * Returns the most frequent words of a single file.
+     *
+     * @param filename the file to report on
+     * @param count the maximum number of words to return
+     * @return up to count words, most frequent first, or an empty list if the
+     * file has not been recorded
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public List<Entry> top(String filename, int count) throws IllegalArgumentException {
+        checkCount(count);
+        Ranking ranking = files.get(symbols.indexOf(filename));
+        return ranking == null ? new ArrayList<>() : ranking.top(count);
+    }
+
+    /**
+     * Checks the number of words asked for.
+     *
+     * @param count the maximum number of words to return
+     * @throws IllegalArgumentException if the count is negative
+     */
+    private static void checkCount(int count) throws IllegalArgumentException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+    }
+
+    /**
+     * Moves the rankings to another SymbolTable, interning the strings of
+     * their words there, as when the words of the repository are moved.
+     *
+     * @param symbols the table of the repository
+     */
+    void useSymbols(SymbolTable symbols) {
+        if (this.symbols == symbols) {
+            return;
+        }
+        SymbolTable previous = this.symbols;
+        LinkedHashMap<Integer, Ranking> recorded = files;
+        this.symbols = symbols;
+        this.global = new Ranking();
+        this.files = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Ranking> file : recorded.entrySet()) {
+            int filenameId = symbols.intern(previous.get(file.getKey()));
+            for (Count count : file.getValue().ranking) {
+                add(filenameId, symbols.intern(previous.get(count.keyId)), symbols.intern(previous.get(count.wordId)), count.frequency);
+            }
+        }
+    }
+
+    /**
+     * Adds occurrences of a word to the ranking of a file and to the overall
+     * ranking.
+     *
+     * @param filenameId the identifier of the filename
+     * @param keyId the identifier of the lower case form of the word
+     * @param wordId the identifier of the word
+     * @param occurrences the number of new occurrences
+     */
+    private void add(int filenameId, int keyId, int wordId, int occurrences) {
+        global.add(keyId, wordId, occurrences);
+        files.computeIfAbsent(filenameId, id -> new Ranking()).add(keyId, wordId, occurrences);
+    }
+
+    /**
+     * Orders counts by decreasing frequency, breaking ties alphabetically.
+     *
+     * @param one a count
+     * @param other the count to compare against
+     * @return a negative number if the first count ranks higher, a positive
+     * number if it ranks lower, 0 if both are the same word
+     */
+    private int compare(Count one, Count other) {
+        int difference = Integer.compare(other.frequency, one.frequency);
+        if (difference != 0 || one.keyId == other.keyId) {
+            return difference;
+        }
+        return symbols.get(one.keyId).compareTo(symbols.get(other.keyId));
+    }
+
+    /**
+     * Writes the table followed by the ranking of each file: the identifier
+     * of the filename and the number of words, then for each word the
+     * identifiers of its lower case form and its spelling and its frequency.
+     * The spelling is written as 0 when it is the lower case form itself, and
+     * as its identifier plus one otherwise.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        Postings.writeVarint(out, files.size());
+        for (Map.Entry<Integer, Ranking> file : files.entrySet()) {
+            Postings.writeVarint(out, file.getKey());
+            Postings.writeVarint(out, file.getValue().ranking.size());
+            for (Count count : file.getValue().ranking) {
+                Postings.writeVarint(out, count.keyId);
+                Postings.writeVarint(out, count.wordId == count.keyId ? 0 : count.wordId + 1);
+                Postings.writeVarint(out, count.frequency);
+            }
+        }
+    }
+
+    /**
+     * Reads the rankings written by writeObject, summing the overall ranking
+     * from the files in the order they were recorded.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        global = new Ranking();
+        files = new LinkedHashMap<>();
+        int fileCount = Postings.readVarint(in);
+        for (int i = 0; i < fileCount; i++) {
+            int filenameId = Postings.readVarint(in);
+            int wordCount = Postings.readVarint(in);
+            for (int j = 0; j < wordCount; j++) {
+                int keyId = Postings.readVarint(in);
+                int wordCode = Postings.readVarint(in);
+                add(filenameId, keyId, wordCode == 0 ? keyId : wordCode - 1, Postings.readVarint(in));
+            }
+        }
+    }
+
+    /**
+     * Represents a word together with the number of times it appears.
+     */
+    public static class Entry {
+
+        private final String word;
+        private final int frequency;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param word the spelling to report
+         * @param frequency the number of times the word appears
+         */
+        Entry(String word, int frequency) {
+            this.word = word;
+            this.frequency = frequency;
+        }
+
+        /**
+         * Retrieves the word.
+         *
+         * @return the word as first recorded
+         */
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * Retrieves the number of times the word appears.
+         *
+         * @return the frequency of the word
+         */
+        public int getFrequency() {
+            return frequency;
+        }
+
+        /**
+         * Returns the word and its frequency in the style of the other
+         * reports.
+         *
+         * @return the string representation of the entry
+         */
+        @Override
+        public String toString() {
+            return "Key: ===" + word + "=== number of entries: " + frequency;
+        }
+    }
+
+    /**
+     * Counts the occurrences of one word in one scope.
+     */
+    private static class Count {
+
+        private final int keyId;  // Lower case form used for grouping
+        private final int wordId; // Spelling the word was first seen with
+        private int frequency;
+
+        /**
+         * Constructs a count of a word that has not been counted yet.
+         *
+         * @param keyId the identifier of the lower case form of the word
+         * @param wordId the identifier of the spelling to report
+         */
+        Count(int keyId, int wordId) {
+            this.keyId = keyId;
+            this.wordId = wordId;
+        }
+    }
+
+    /**
+     * Ranks the words of one scope. Each word has a single count, found
+     * through a hash map and kept in a sorted set ordered by frequency, so
+     * a count has to leave the set while its frequency changes.
+     */
+    private class Ranking {
+
+        private final HashMap<Integer, Count> counts = new HashMap<>();
+        private final TreeSet<Count> ranking = new TreeSet<>(TopWords.this::compare);
+
+        /**
+         * Adds occurrences to the count of a word, creating it if needed. A
+         * count left without occurrences is dropped.
+         *
+         * @param keyId the identifier of the lower case form of the word
+         * @param wordId the identifier of the word
+         * @param occurrences the number of new occurrences, negative to take
+         * occurrences away
+         */
+        void add(int keyId, int wordId, int occurrences) {
+            Count count = counts.get(keyId);
+            if (count == null) {
+                count = new Count(keyId, wordId);
+                counts.put(keyId, count);
+            } else {
+                ranking.remove(count);
+            }
+            count.frequency += occurrences;
+            if (count.frequency > 0) {
+                ranking.add(count);
+            } else {
+                counts.remove(keyId);
+            }
+        }
+
+        /**
+         * Returns the first entries of the ranking.
+         *
+         * @param count the maximum number of entries to return
+         * @return up to count entries, most frequent first
+         */
+        List<Entry> top(int count) {
+            ArrayList<Entry> top = new ArrayList<>(Math.min(count, ranking.size()));
+            for (Count word : ranking) {
+                if (top.size() == count) {
+                    break;
+                }
+                top.add(new Entry(symbols.get(word.wordId), word.frequency));
+            }
+            return top;
+        }
+    }
+}
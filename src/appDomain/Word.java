@@ -1,51 +1,178 @@
 package appDomain;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a word found in a file, along with metadata such as its frequency
  * and the lines on which it appears. Implements the Comparable interface to
  * allow comparison of Word objects based on their word content and filenames.
+ *
+ * A Word of a repository refers to the SymbolTable of the repository, holds
+ * the shared copies of its word, lower case form and filename kept there,
+ * and is serialized as their identifiers. A Word created without a table,
+ * such as one only used to search a tree, keeps the strings it was given and
+ * adds nothing to any table.
  */
 public class Word implements Comparable<Word>, Serializable {
 
     private static final long serialVersionUID = 5248877746679030444L;
 
-    private String word; // The word content
-    private String filename; // The filename where the word is found
-    private ArrayList<Integer> lines; // List of line numbers where the word appears
+    /**
+     * The serialized form: the symbol table the identifiers belong to, which
+     * the stream holds once. The identifiers of the word, its lower case form
+     * and the filename, the frequency and the postings follow as variable
+     * length numbers.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("symbols", SymbolTable.class)
+    };
+
+    private transient String word; // The word content
+    private transient String filename; // The filename where the word is found
+    private Postings postings; // Line numbers where the word appears
     private int frequency; // Number of times the word appears in the file
+    private transient String key; // Lower case form of the word, used for ordering
+    private transient SymbolTable symbols; // Table of the repository, null if the word is not in one
+    private transient int keyId; // Symbol of the lower case form, -1 without a table
+    private transient int filenameId; // Symbol of the filename, -1 without a table
 
     /**
      * Constructs a Word object with the given word, filename, and line number.
      * Initializes the frequency to 1 and adds the initial line number to the
-     * list.
+     * list. The word does not belong to any SymbolTable, which suits a word
+     * that is only used to search a tree.
      *
      * @param word the word content
      * @param filename the filename where the word is found
      * @param lineNumber the line number where the word is located
      */
     public Word(String word, String filename, int lineNumber) {
-        this.word = word;
-        this.filename = filename;
-        this.lines = new ArrayList();
-        this.lines.add(lineNumber);
+        this(word, filename, lineNumber, null);
+    }
+
+    /**
+     * Constructs a Word object with the given word, filename, and line number,
+     * taking the shared copies of its strings from a SymbolTable. Initializes
+     * the frequency to 1 and adds the initial line number to the list.
+     *
+     * @param word the word content
+     * @param filename the filename where the word is found
+     * @param lineNumber the line number where the word is located
+     * @param symbols the table of the repository, or null for none
+     */
+    public Word(String word, String filename, int lineNumber, SymbolTable symbols) {
+        setSymbols(word, filename, symbols);
+        this.postings = new Postings(lineNumber);
         this.frequency = 1;
     }
 
     /**
-     * Adds a line number to the list of lines where the word appears. Ensures
-     * that duplicate line numbers are not added.
+     * Constructs a Word object from data that has already been collected, as
+     * when an encoded copy is read back.
+     *
+     * @param word the word content
+     * @param filename the filename where the word is found
+     * @param postings the line numbers where the word appears
+     * @param frequency the number of times the word appears in the file
+     */
+    Word(String word, String filename, Postings postings, int frequency) {
+        setSymbols(word, filename, null);
+        this.postings = postings;
+        this.frequency = frequency;
+    }
+
+    /**
+     * Replaces the word and filename with their shared copies from a
+     * SymbolTable and looks up the identifiers used for comparisons. Without a
+     * table the strings are kept as given.
+     *
+     * @param word the word content
+     * @param filename the filename where the word is found
+     * @param symbols the table to intern the strings into, or null for none
+     */
+    private void setSymbols(String word, String filename, SymbolTable symbols) {
+        this.symbols = symbols;
+        if (symbols == null) {
+            this.word = word;
+            this.key = word.toLowerCase();
+            this.filename = filename;
+            this.keyId = -1;
+            this.filenameId = -1;
+            return;
+        }
+        this.word = symbols.get(symbols.intern(word));
+        this.keyId = symbols.intern(word.toLowerCase());
+        this.key = symbols.get(keyId);
+        this.filenameId = symbols.intern(filename);
+        this.filename = symbols.get(filenameId);
+    }
+
+    /**
+     * Takes the word, its lower case form and the filename from a SymbolTable
+     * by identifier, as when a Word is read back.
+     *
+     * @param symbols the table the identifiers belong to
+     * @param wordId the identifier of the word
+     * @param keyId the identifier of the lower case form of the word
+     * @param filenameId the identifier of the filename
+     */
+    private void setSymbols(SymbolTable symbols, int wordId, int keyId, int filenameId) {
+        this.symbols = symbols;
+        this.word = symbols.get(wordId);
+        this.keyId = keyId;
+        this.key = symbols.get(keyId);
+        this.filenameId = filenameId;
+        this.filename = symbols.get(filenameId);
+    }
+
+    /**
+     * Moves the word to another SymbolTable, interning its strings there. The
+     * strings are equal, so the order of the word does not change.
+     *
+     * @param symbols the table of the repository the word belongs to
+     */
+    void useSymbols(SymbolTable symbols) {
+        if (this.symbols != symbols) {
+            setSymbols(word, filename, symbols);
+        }
+    }
+
+    /**
+     * Returns the SymbolTable the word belongs to.
+     *
+     * @return the table, or null if the word is not in one
+     */
+    SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Adds a line number to the lines where the word appears. Lines are read
+     * in order, so a line equal to the last one added is ignored.
      *
      * @param lineNumber the line number to add
      */
     public void addLine(int lineNumber) {
-        for (int i = 0; i < lines.size(); i++) {
-            if (lines.get(i) != lineNumber) {
-                lines.add(lineNumber);
-            }
-        }
+        postings.add(lineNumber);
+    }
+
+    /**
+     * Combines another entry for the same word and filename into this one by
+     * adding its frequency and taking the union of both line lists.
+     *
+     * @param other the Word to combine into this one
+     * @return this Word, updated with the data of the other one
+     */
+    public Word mergeWith(Word other) {
+        postings = postings.union(other.postings);
+        frequency = frequency + other.frequency;
+        return this;
     }
 
     /**
@@ -64,6 +191,15 @@ public class Word implements Comparable<Word>, Serializable {
         return word;
     }
 
+    /**
+     * Retrieves the lower case form of the word that Words are ordered by.
+     *
+     * @return the word in lower case
+     */
+    String getKey() {
+        return key;
+    }
+
     /**
      * Retrieves the filename where the word is found.
      *
@@ -73,6 +209,32 @@ public class Word implements Comparable<Word>, Serializable {
         return filename;
     }
 
+    /**
+     * Retrieves the number of times the word appears in the file.
+     *
+     * @return the frequency of the word
+     */
+    public int getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Retrieves the line numbers where the word appears.
+     *
+     * @return the line numbers, in ascending order
+     */
+    Postings getLines() {
+        return postings;
+    }
+
+    /**
+     * Stores the line numbers in their compact form, for words that are kept
+     * once they have been read.
+     */
+    public void compactLines() {
+        postings.compact();
+    }
+
     /**
      * Converts the Word object to a string representation based on the
      * specified option. The output format depends on the option provided.
@@ -85,9 +247,9 @@ public class Word implements Comparable<Word>, Serializable {
             case "-pf":
                 return "Key: ===" + word + "=== found in file: " + filename;
             case "-pl":
-                return "Key: ===" + word + "=== found in file: " + filename + " +  on lines: " + lines.toString();
+                return "Key: ===" + word + "=== found in file: " + filename + " +  on lines: " + postings.toString();
             case "-po":
-                return "Key: ===" + word + "=== number of entries: " + frequency + " found in file: " + filename + " +  on lines: " + lines.toString();
+                return "Key: ===" + word + "=== number of entries: " + frequency + " found in file: " + filename + " +  on lines: " + postings.toString();
             default:
                 throw new AssertionError();
         }
@@ -101,24 +263,25 @@ public class Word implements Comparable<Word>, Serializable {
      */
     @Override
     public String toString() {
-        return "===" + word + "=== number of entries: " + frequency + " found in file: " + filename + " +  on lines: " + lines.toString();
+        return "===" + word + "=== number of entries: " + frequency + " found in file: " + filename + " +  on lines: " + postings.toString();
     }
 
     /**
      * Compares this Word object to another based on the word content and
      * filename. Comparison is case-insensitive for the word content, and
      * secondary comparison is based on the filename in a case-sensitive manner.
+     * Equal symbols of words in the same SymbolTable are recognised by their
+     * identifiers without comparing characters.
      *
      * @param wordObj the Word object to compare against
      * @return -1 if this Word comes before the other, 1 if after, 0 if equal
      */
     @Override
     public int compareTo(Word wordObj) {
-        String a = this.word.toLowerCase();
-        String b = wordObj.word.toLowerCase();
-        int difference = a.compareTo(b);
+        boolean sameTable = symbols != null && symbols == wordObj.symbols;
+        int difference = sameTable && this.keyId == wordObj.keyId ? 0 : this.key.compareTo(wordObj.key);
         if (difference == 0) {
-            difference = this.filename.compareTo(wordObj.filename);
+            difference = sameTable && this.filenameId == wordObj.filenameId ? 0 : this.filename.compareTo(wordObj.filename);
             if (difference == 0) {
                 return 0;
             } else if (difference > 0) {
@@ -134,4 +297,62 @@ public class Word implements Comparable<Word>, Serializable {
         }
 
     }
+
+    /**
+     * Writes the symbol table field followed by the identifiers of the word,
+     * its lower case form and the filename, the frequency and the postings.
+     * The lower case form is written as 0 when it is the word itself, and as
+     * its identifier plus one otherwise. A word without a table is written
+     * with a table of its own strings.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        SymbolTable table = symbols != null ? symbols : new SymbolTable();
+        int wordId = table.intern(word);
+        int writtenKeyId = symbols != null ? keyId : table.intern(key);
+        int writtenFilenameId = symbols != null ? filenameId : table.intern(filename);
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("symbols", table);
+        out.writeFields();
+        Postings.writeVarint(out, wordId);
+        Postings.writeVarint(out, writtenKeyId == wordId ? 0 : writtenKeyId + 1);
+        Postings.writeVarint(out, writtenFilenameId);
+        Postings.writeVarint(out, frequency);
+        postings.writeTo(out);
+    }
+
+    /**
+     * Reads a Word written by writeObject. Words written by the original
+     * version are recognised by their fields, which hold their strings, the
+     * frequency and a list of boxed line numbers, and are read without a
+     * table.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        ObjectStreamClass written = fields.getObjectStreamClass();
+        if (written.getField("word") == null) {
+            SymbolTable table = (SymbolTable) fields.get("symbols", null);
+            int wordId = Postings.readVarint(in);
+            int keyCode = Postings.readVarint(in);
+            int keyId = keyCode == 0 ? wordId : keyCode - 1;
+            setSymbols(table, wordId, keyId, Postings.readVarint(in));
+            frequency = Postings.readVarint(in);
+            postings = Postings.readFrom(in);
+        } else {
+            setSymbols((String) fields.get("word", null), (String) fields.get("filename", null), null);
+            frequency = fields.get("frequency", 0);
+            postings = new Postings();
+            List<?> lines = (List<?>) fields.get("lines", null);
+            for (Object line : lines) {
+                postings.add((Integer) line);
+            }
+            postings.compact();
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package appDomain;
+
+import java.nio.ByteBuffer;
+import utilities.ElementCodec;
+
+/**
+ * Converts Word objects to and from the binary form kept by an off-heap tree.
+ * The lower case form of the word is stored first, followed by the filename,
+ * so that a search can compare against a stored entry without decoding it.
+ * The original word, the frequency and the line numbers follow, the latter in
+ * the encoding of Postings.
+ *
+ * Layout: folded word, filename, word (each as an int length and its chars),
+ * frequency, postings.
+ */
+public class WordCodec implements ElementCodec<Word> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Returns the number of bytes encode will write for the word.
+     *
+     * @param element the word to measure
+     * @return the encoded length of the word in bytes
+     */
+    @Override
+    public int encodedSize(Word element) {
+        int chars = element.getKey().length() + element.getFilename().length()
+                + element.getWord().length();
+        return 4 * Integer.BYTES + 2 * chars + element.getLines().encodedSize();
+    }
+
+    /**
+     * Writes the word at the current position of the buffer.
+     *
+     * @param element the word to write
+     * @param buffer the buffer to write to
+     */
+    @Override
+    public void encode(Word element, ByteBuffer buffer) {
+        putString(buffer, element.getKey());
+        putString(buffer, element.getFilename());
+        putString(buffer, element.getWord());
+        buffer.putInt(element.getFrequency());
+        element.getLines().encode(buffer);
+    }
+
+    /**
+     * Reads a word written by encode at the current position of the buffer.
+     *
+     * @param buffer the buffer to read from
+     * @return a new Word equal to the one that was encoded
+     */
+    @Override
+    public Word decode(ByteBuffer buffer) {
+        skipString(buffer);
+        String filename = getString(buffer);
+        String word = getString(buffer);
+        int frequency = buffer.getInt();
+        return new Word(word, filename, Postings.decode(buffer), frequency);
+    }
+
+    /**
+     * Compares a word with an encoded word using only the stored folded word
+     * and filename, following the same rules as Word.compareTo.
+     *
+     * @param entry the word to compare
+     * @param buffer the buffer holding the encoded word
+     * @param offset the absolute offset of the encoded word
+     * @return -1, 0 or 1 as the word is less than, equal to or greater than
+     * the encoded word
+     */
+    @Override
+    public int compare(Word entry, ByteBuffer buffer, int offset) {
+        int difference = compareString(entry.getKey(), buffer, offset);
+        if (difference == 0) {
+            offset += Integer.BYTES + buffer.getInt(offset) * 2;
+            difference = compareString(entry.getFilename(), buffer, offset);
+        }
+        return Integer.signum(difference);
+    }
+
+    /**
+     * Compares a string with a string stored at the given offset in the same
+     * order as String.compareTo.
+     *
+     * @param value the string to compare
+     * @param buffer the buffer holding the stored string
+     * @param offset the absolute offset of the stored string
+     * @return the difference of the first mismatching chars, or of the lengths
+     */
+    private static int compareString(String value, ByteBuffer buffer, int offset) {
+        int storedLength = buffer.getInt(offset);
+        int limit = Math.min(value.length(), storedLength);
+        int position = offset + Integer.BYTES;
+        for (int i = 0; i < limit; i++) {
+            int difference = value.charAt(i) - buffer.getChar(position + i * 2);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return value.length() - storedLength;
+    }
+
+    /**
+     * Writes a string at the current position of the buffer as its length
+     * followed by its chars.
+     *
+     * @param buffer the buffer to write to
+     * @param value the string to write
+     */
+    private static void putString(ByteBuffer buffer, String value) {
+        buffer.putInt(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer.putChar(value.charAt(i));
+        }
+    }
+
+    /**
+     * Reads a string written by putString at the current position of the
+     * buffer.
+     *
+     * @param buffer the buffer to read from
+     * @return the string that was read
+     */
+    private static String getString(ByteBuffer buffer) {
+        char[] chars = new char[buffer.getInt()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar();
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Moves the position of the buffer past a string written by putString
+     * without reading its chars.
+     *
+     * @param buffer the buffer positioned at the string
+     */
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + length * 2);
+    }
+}
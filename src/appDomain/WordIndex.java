@@ -0,0 +1,110 @@
+package appDomain;
+
+/**
+ * Finds a Word by a spelling it was seen with and its filename in amortized
+ * constant time, so that each word read from a file is matched against the
+ * words already seen without scanning them or lower casing it. A word may be
+ * indexed under several spellings, such as its lower case form and each
+ * capitalization found in the file. Entries are kept in a single open
+ * addressing table with linear probing, next to the hash of each slot, and
+ * the table doubles before it is half full. Entries cannot be removed.
+ */
+public class WordIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] spellings = new String[INITIAL_CAPACITY];
+    private Word[] words = new Word[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the word indexed under the given spelling and filename.
+     *
+     * @param spelling the word exactly as it was indexed
+     * @param filename the filename where the word is found
+     * @return the indexed word, or null if there is none
+     */
+    public Word get(String spelling, String filename) {
+        int hash = hash(spelling, filename);
+        int mask = words.length - 1;
+        for (int slot = hash & mask; words[slot] != null; slot = (slot + 1) & mask) {
+            Word word = words[slot];
+            if (hashes[slot] == hash && spellings[slot].equals(spelling) && word.getFilename().equals(filename)) {
+                return word;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indexes a word under a spelling it is not indexed under yet.
+     *
+     * @param spelling the spelling to find the word by
+     * @param word the word to add
+     */
+    public void add(String spelling, Word word) {
+        if (2 * (size + 1) > words.length) {
+            resize();
+        }
+        insert(spelling, word, hash(spelling, word.getFilename()));
+        size++;
+    }
+
+    /**
+     * Returns the number of indexed spellings.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Places an entry in the first free slot of its probe sequence.
+     *
+     * @param spelling the spelling of the entry
+     * @param word the word of the entry
+     * @param hash the hash of the spelling and filename
+     */
+    private void insert(String spelling, Word word, int hash) {
+        int mask = words.length - 1;
+        int slot = hash & mask;
+        while (words[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        spellings[slot] = spelling;
+        words[slot] = word;
+        hashes[slot] = hash;
+    }
+
+    /**
+     * Doubles the table and places every entry again.
+     */
+    private void resize() {
+        String[] oldSpellings = spellings;
+        Word[] oldWords = words;
+        int[] oldHashes = hashes;
+        spellings = new String[oldWords.length * 2];
+        words = new Word[oldWords.length * 2];
+        hashes = new int[oldWords.length * 2];
+        for (int slot = 0; slot < oldWords.length; slot++) {
+            if (oldWords[slot] != null) {
+                insert(oldSpellings[slot], oldWords[slot], oldHashes[slot]);
+            }
+        }
+    }
+
+    /**
+     * Combines the hashes of a spelling and a filename, spreading the high
+     * bits into the low ones that select a slot.
+     *
+     * @param spelling the spelling of the word
+     * @param filename the filename where the word is found
+     * @return the combined hash
+     */
+    private static int hash(String spelling, String filename) {
+        int hash = spelling.hashCode() * 31 + filename.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,6 +1,15 @@
 package appDomain;
 
+import implementations.BPlusTree;
 import implementations.BSTree;
+import implementations.BSTreeNode;
+import implementations.OffHeapBSTree;
+import implementations.PooledBSTree;
+import implementations.SplayTree;
+import implementations.TreeStats;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -13,7 +22,10 @@ import java.io.Serializable;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Scanner;
+import javax.management.JMException;
+import utilities.BSTreeADT;
 import utilities.Iterator;
 
 /**
@@ -27,9 +39,17 @@ public class WordTracker implements Serializable {
     // Iterator for in-order traversal
     private static Iterator Iterator;
 
+    // Number of words listed by the "-pt" option unless "-k" is given
+    private static final int DEFAULT_TOP_COUNT = 100;
+
+    // Command line summary printed when the arguments cannot be used
+    private static final String USAGE = "Usage: java -jar WordTracker.jar <input.txt> -pf/-pl/-po/-pt [-f <output.txt>] [-k <count>] [--stats] [--reindex] [-t avl/bst/pooled/bplus/splay/offheap]";
+
     private Scanner fileReader; // Scanner to read input files
     private String filename;    // Name of the file being processed
     private ArrayList<Word> Words; // Stores words and their metadata
+    private WordIndex index; // Finds the words in Words by spelling and filename
+    private SymbolTable symbols; // Shares the strings of the words read from the file
 
     /**
      * Constructor to initialize the WordTracker with a file to read. Attempts
@@ -60,12 +80,18 @@ public class WordTracker implements Serializable {
         this.fileReader = new Scanner(filePath);
         this.filename = textFile;
         this.Words = new ArrayList();
+        this.index = new WordIndex();
+        this.symbols = new SymbolTable();
 
     }
 
     /**
      * Compares the provided word with existing words in the list. If a match is
-     * found, updates the frequency and line numbers.
+     * found, updates the frequency and line numbers. The match is looked up in
+     * a hash index, so this takes constant time on average whatever the number
+     * of words. The index is keyed by every spelling already seen, so a word
+     * repeated with the same spelling is found without lower casing it; only
+     * a new spelling is lower cased, and then indexed as well.
      *
      * @param currentWord The word to compare
      * @param lineNumber The line number where the word appears
@@ -76,20 +102,17 @@ public class WordTracker implements Serializable {
         if (Words == null) {
             return false;
         }
-        for (Word word : Words) {
-            String newWord = currentWord.toLowerCase();
-            String wordInList = word.getWord().toLowerCase();
-            int difference = newWord.compareTo(wordInList);
-            if (difference == 0) {
-                difference = filename.compareTo(word.getFilename());
-                if (difference == 0) {
-                    word.addLine(lineNumber);
-                    word.increaseFrequency();
-                    return true;
-                }
+        Word word = index.get(currentWord, filename);
+        if (word == null) {
+            word = index.get(currentWord.toLowerCase(), filename);
+            if (word == null) {
+                return false;
             }
+            index.add(currentWord, word);
         }
-        return false;
+        word.addLine(lineNumber);
+        word.increaseFrequency();
+        return true;
     }
 
     /**
@@ -102,8 +125,12 @@ public class WordTracker implements Serializable {
     private void addWord(String word, String filename, int lineNumber) {
         boolean wordExists = compareWords(word, lineNumber, filename);
         if (!wordExists) {
-            Word newWord = new Word(word, filename, lineNumber);
+            Word newWord = new Word(word, filename, lineNumber, symbols);
             Words.add(newWord);
+            index.add(word, newWord);
+            if (!word.equals(newWord.getKey())) {
+                index.add(newWord.getKey(), newWord);
+            }
         }
     }
 
@@ -133,35 +160,80 @@ public class WordTracker implements Serializable {
      * Builds the binary search tree with words from the text file. Reads from a
      * repository if it exists, or starts a new tree otherwise.
      *
-     * @param tree The BSTree to populate
+     * @param tree The tree to populate when no repository exists
+     * @param tracker The WordTracker object to read words from
+     * @param option The output format option
+     * @throws IOException If an I/O error occurs
+     * @throws ClassNotFoundException If deserialization fails
+     */
+    public static void buildBinarySearchTree(BSTreeADT<Word> tree, WordTracker tracker, String option) throws IOException, ClassNotFoundException {
+        buildBinarySearchTree(tree, tracker, option, DEFAULT_TOP_COUNT, false, false);
+    }
+
+    /**
+     * Builds the binary search tree with words from the text file. Reads from a
+     * repository if it exists, or starts a new tree otherwise. The word
+     * frequency rankings are stored in the repository after the tree.
+     *
+     * @param tree The tree to populate when no repository exists
      * @param tracker The WordTracker object to read words from
      * @param option The output format option
+     * @param topCount The number of words listed by the "-pt" option
+     * @param showStats Whether to record tree statistics and print them after
+     * the results
+     * @param reindex Whether to drop the entries the repository already holds
+     * for the file before adding the new ones, which only a BSTree repository
+     * supports
      * @throws IOException If an I/O error occurs
      * @throws ClassNotFoundException If deserialization fails
      */
-    public static void buildBinarySearchTree(BSTree tree, WordTracker tracker, String option) throws IOException, ClassNotFoundException {
+    @SuppressWarnings("unchecked")
+    public static void buildBinarySearchTree(BSTreeADT<Word> tree, WordTracker tracker, String option, int topCount, boolean showStats, boolean reindex) throws IOException, ClassNotFoundException {
         ArrayList<Word> array = new ArrayList();
         array = tracker.readFile();
+        // Words read from a file are unique, so once sorted they can be merged in one pass
+        Collections.sort(array);
 
+        TopWords topWords;
         if (repoExists() == false) {
             System.out.println("*--No Repository Found--*");
             System.out.println("");
-            for (Word word : array) {
-                tree.add(word);
-            }
+            topWords = new TopWords(tracker.symbols);
         } else {
             System.out.println("*--Repository Exists--*");
             System.out.println("");
-            tree = deserializeTree();
-            for (Word word : array) {
-                tree.add(word);
-            }
+            FileInputStream fileIn = new FileInputStream("repository.ser");
+            // Object streams read headers a few bytes at a time, so buffer the file
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(fileIn));
+            tree = (BSTreeADT<Word>) in.readObject();
+            topWords = readTopWords(in, tree);
+            in.close();
+            fileIn.close();
         }
+        // Only a BSTree can remove entries, so refuse before the repository is changed
+        if (reindex && !(tree instanceof BSTree)) {
+            System.out.println("Re-indexing is only supported for BSTree repositories, the repository was not changed");
+            return;
+        }
+        TreeStats stats = showStats ? enableStats(tree, tracker.filename) : null;
+        if (reindex) {
+            evictFile((BSTree<Word>) tree, topWords, tracker.filename);
+        }
+        SymbolTable symbols = shareSymbols(tree, tracker.symbols, reindex);
+        topWords.useSymbols(symbols);
+        // The file has been read, so its words only gain lines through merges
+        for (Word word : array) {
+            word.useSymbols(symbols);
+            word.compactLines();
+            topWords.record(word);
+        }
+        mergeWords(tree, array);
 
         // Serialize the tree for future use
         FileOutputStream fileOut = new FileOutputStream("repository.ser");
-        ObjectOutputStream out = new ObjectOutputStream(fileOut);
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(fileOut));
         out.writeObject(tree);
+        out.writeObject(topWords);
 
         out.close();
         fileOut.close();
@@ -172,15 +244,224 @@ public class WordTracker implements Serializable {
         String[] s = option.split("\\W");
         System.out.println("Writing " + s[1] + " format");
 
-        tree.inorderIterator();
-        Iterator inOrderList = tree.inorderIterator();
-        while (inOrderList.hasNext()) {
-            Word word = (Word) inOrderList.next();
-            System.out.println(word.toString(option));
+        if (option.equals("-pt")) {
+            printTopWords(topWords, tracker.filename, topCount);
+        } else {
+            tree.inorderIterator();
+            Iterator inOrderList = tree.inorderIterator();
+            while (inOrderList.hasNext()) {
+                Word word = (Word) inOrderList.next();
+                System.out.println(word.toString(option));
+            }
+            System.out.println("---Tree Complete---");
+        }
+
+        if (showStats) {
+            System.out.println("---Tree Statistics---");
+            System.out.println(stats != null ? stats : "Statistics are only recorded for BSTree repositories");
+        }
+    }
+
+    /**
+     * Removes every entry of a file from the repository. The tree is ordered
+     * by word first, so the entries of one file are spread all over it; the
+     * words of the file are taken from its frequency ranking instead, and
+     * each entry is removed in O(log n) time without visiting the rest of the
+     * tree.
+     *
+     * @param tree The tree to remove the entries from
+     * @param topWords The word frequency rankings of the repository
+     * @param filename The file whose entries are removed
+     */
+    private static void evictFile(BSTree<Word> tree, TopWords topWords, String filename) {
+        for (String word : topWords.evict(filename)) {
+            tree.remove(new Word(word, filename, 0));
+        }
+    }
+
+    /**
+     * Makes every word of the tree belong to the same SymbolTable, so that the
+     * repository is written with a single table. The words normally share the
+     * table they were read with already, and only words read from a repository
+     * written before tables were kept are moved. Moving every word to a new
+     * table drops the strings of words that were removed from the repository.
+     *
+     * @param tree The tree whose words must share a table
+     * @param own The table of the words that were just read
+     * @param moveAll Whether to move every word to the table of the words
+     * that were just read, instead of keeping the table of the repository
+     * @return the table of the repository
+     */
+    private static SymbolTable shareSymbols(BSTreeADT<Word> tree, SymbolTable own, boolean moveAll) {
+        SymbolTable symbols = moveAll ? own : null;
+        Iterator<Word> it = tree.inorderIterator();
+        while (it.hasNext()) {
+            Word word = it.next();
+            if (symbols == null) {
+                symbols = word.getSymbols() != null ? word.getSymbols() : new SymbolTable();
+            }
+            word.useSymbols(symbols);
+        }
+        return symbols != null ? symbols : own;
+    }
+
+    /**
+     * Starts recording statistics for the tree and publishes them through JMX
+     * for as long as the program runs.
+     *
+     * @param tree The tree to record statistics for
+     * @param name The name to register the statistics under
+     * @return the statistics, or null if the tree does not record them
+     */
+    private static TreeStats enableStats(BSTreeADT<Word> tree, String name) {
+        if (!(tree instanceof BSTree)) {
+            return null;
+        }
+        TreeStats stats = ((BSTree<Word>) tree).enableStats();
+        try {
+            stats.register(name);
+        } catch (JMException e) {
+            System.out.println("Statistics could not be published through JMX: " + e);
+        }
+        return stats;
+    }
+
+    /**
+     * Reads the word frequency rankings stored after the tree. A repository
+     * written before the rankings were kept ends after the tree, in which case
+     * the rankings are rebuilt from the tree once.
+     *
+     * @param in The stream positioned after the tree
+     * @param tree The tree that was read from the stream
+     * @return the word frequency rankings of the repository
+     * @throws IOException If an I/O error occurs
+     * @throws ClassNotFoundException If deserialization fails
+     */
+    private static TopWords readTopWords(ObjectInputStream in, BSTreeADT<Word> tree) throws IOException, ClassNotFoundException {
+        try {
+            return (TopWords) in.readObject();
+        } catch (EOFException e) {
+            TopWords topWords = new TopWords(new SymbolTable());
+            Iterator<Word> it = tree.inorderIterator();
+            while (it.hasNext()) {
+                topWords.record(it.next());
+            }
+            return topWords;
+        }
+    }
+
+    /**
+     * Prints the most frequent words over all files, then those of the file
+     * that was just read.
+     *
+     * @param topWords The word frequency rankings
+     * @param filename The file that was just read
+     * @param count The number of words to list
+     */
+    private static void printTopWords(TopWords topWords, String filename, int count) {
+        System.out.println("Top " + count + " words in all files:");
+        for (TopWords.Entry entry : topWords.top(count)) {
+            System.out.println(entry);
+        }
+        System.out.println("Top " + count + " words in file: " + filename);
+        for (TopWords.Entry entry : topWords.top(filename, count)) {
+            System.out.println(entry);
         }
         System.out.println("---Tree Complete---");
     }
 
+    /**
+     * Returns the words in the tree that start with the given prefix, ignoring
+     * case. Only the part of the tree holding matching words is visited.
+     *
+     * @param tree The BSTree to search
+     * @param prefix The prefix the words must start with
+     * @return an iterator over the matching words in alphabetical order
+     */
+    public static Iterator<Word> wordsWithPrefix(BSTree<Word> tree, String prefix) {
+        String folded = prefix.toLowerCase();
+        Word lowest = new Word(prefix, "", 0);
+        return tree.scan(lowest, word -> word.getKey().startsWith(folded));
+    }
+
+    /**
+     * Returns the lines of a file on which every one of the given words
+     * appears, ignoring case. The postings of the words are intersected, a
+     * word of 64 lines at a time for words stored as bitmaps.
+     *
+     * @param tree The tree to search
+     * @param filename The file the lines belong to
+     * @param words The words that must all appear on a line
+     * @return the matching lines in ascending order, empty if a word does not
+     * appear in the file
+     */
+    public static int[] linesWithAll(BSTreeADT<Word> tree, String filename, String... words) {
+        Postings lines = null;
+        for (String word : words) {
+            BSTreeNode<Word> node = tree.search(new Word(word, filename, 0));
+            if (node == null) {
+                return new int[0];
+            }
+            Postings postings = node.getElement().getLines();
+            lines = lines == null ? postings : lines.intersect(postings);
+        }
+        return lines == null ? new int[0] : lines.toArray();
+    }
+
+    /**
+     * Merges sorted, unique words into the tree. Words already in the tree
+     * absorb the frequency and lines of the new ones. A BSTree is merged in a
+     * single ordered pass, any other tree one word at a time with a single
+     * descent per word.
+     *
+     * @param tree The tree to merge into
+     * @param words The words to merge, sorted and without duplicates
+     */
+    public static void mergeWords(BSTreeADT<Word> tree, ArrayList<Word> words) {
+        if (tree instanceof BSTree) {
+            BSTree<Word> bst = (BSTree<Word>) tree;
+            if (bst.isEmpty()) {
+                bst.buildFromSorted(words);
+            } else {
+                BSTree<Word> incoming = new BSTree<>(true);
+                incoming.buildFromSorted(words);
+                bst.union(incoming, Word::mergeWith);
+            }
+            return;
+        }
+        for (Word word : words) {
+            tree.merge(word, Word::mergeWith);
+        }
+    }
+
+    /**
+     * Creates an empty tree of the given kind to hold a new repository.
+     *
+     * @param type "avl" for a balanced BSTree, "bst" for a plain BSTree,
+     * "pooled" for a PooledBSTree, "bplus" for a BPlusTree, "splay" for a
+     * SplayTree or "offheap" for an OffHeapBSTree
+     * @return the new empty tree
+     * @throws IllegalArgumentException if the kind of tree is unknown
+     */
+    public static BSTreeADT<Word> createTree(String type) throws IllegalArgumentException {
+        switch (type) {
+            case "avl":
+                return new BSTree<>(true);
+            case "bst":
+                return new BSTree<>();
+            case "pooled":
+                return new PooledBSTree<>();
+            case "bplus":
+                return new BPlusTree<>();
+            case "splay":
+                return new SplayTree<>();
+            case "offheap":
+                return new OffHeapBSTree<>(new WordCodec());
+            default:
+                throw new IllegalArgumentException("Unknown tree type: " + type);
+        }
+    }
+
     /**
      * Checks if the serialized repository exists.
      *
@@ -202,17 +483,18 @@ public class WordTracker implements Serializable {
     /**
      * Deserializes the binary search tree from the repository file.
      *
-     * @return The deserialized BSTree object
+     * @return The deserialized tree
      * @throws IOException If an I/O error occurs
      * @throws ClassNotFoundException If deserialization fails
      */
-    public static BSTree deserializeTree() throws IOException, ClassNotFoundException {
-        BSTree tree = null;
+    @SuppressWarnings("unchecked")
+    public static BSTreeADT<Word> deserializeTree() throws IOException, ClassNotFoundException {
+        BSTreeADT<Word> tree = null;
         FileInputStream fileIn = new FileInputStream("repository.ser");
 
-        ObjectInputStream in = new ObjectInputStream(fileIn);
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(fileIn));
 
-        tree = (BSTree) in.readObject();
+        tree = (BSTreeADT<Word>) in.readObject();
 
         in.close();
         fileIn.close();
@@ -220,6 +502,20 @@ public class WordTracker implements Serializable {
         return tree;
     }
 
+    /**
+     * Parses the number of words listed by the "-pt" option.
+     *
+     * @param value The value given after "-k"
+     * @return the count, or -1 if the value is not a non-negative number
+     */
+    private static int parseCount(String value) {
+        try {
+            return Math.max(Integer.parseInt(value), -1);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /**
      * Entry point for the WordTracker application. Parses command-line
      * arguments and initiates processing.
@@ -231,17 +527,42 @@ public class WordTracker implements Serializable {
     public static void main(String[] args) throws IOException, ClassNotFoundException {
         // Check if minimum required arguments are provided
         if (args.length < 2) {
-            System.out.println("Usage: java -jar WordTracker.jar <input.txt> -pf/-pl/-po [-f <output.txt>]");
+            System.out.println(USAGE);
             return;
         }
 
         String fileName = args[0];         // First argument is the input file
         String sortOption = args[1];       // Second argument is the print option
         String outputFile = null;          // Optional output file
+        String treeType = "avl";           // Optional tree implementation for a new repository
+        int topCount = DEFAULT_TOP_COUNT;  // Optional number of words listed by -pt
+        boolean showStats = false;         // Optional dump of tree statistics
+        boolean reindex = false;           // Optional replacement of the file's old entries
+
+        // Check for the optional flags
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--stats")) {
+                showStats = true;
+            } else if (args[i].equals("--reindex")) {
+                reindex = true;
+            } else if (i + 1 < args.length) {
+                if (args[i].equals("-f")) {
+                    outputFile = args[i + 1];
+                } else if (args[i].equals("-t")) {
+                    treeType = args[i + 1];
+                } else if (args[i].equals("-k")) {
+                    topCount = parseCount(args[i + 1]);
+                    if (topCount < 0) {
+                        System.out.println("Invalid count for -k: " + args[i + 1]);
+                        System.out.println(USAGE);
+                        return;
+                    }
+                }
+                i++;
+            }
+        }
 
-        // Check for output file option
-        if (args.length >= 4 && args[2].equals("-f")) {
-            outputFile = args[3];
+        if (outputFile != null) {
             // Add this: Redirect System.out to the file
             PrintStream fileOut = new PrintStream(new FileOutputStream(outputFile));
             System.setOut(fileOut);
@@ -256,8 +577,8 @@ public class WordTracker implements Serializable {
             System.out.println("Error: " + e);
         }
 
-        BSTree tree = new BSTree();
-        buildBinarySearchTree(tree, tracker, sortOption);
+        BSTreeADT<Word> tree = createTree(treeType);
+        buildBinarySearchTree(tree, tracker, sortOption, topCount, showStats, reindex);
 
     }
 
@@ -0,0 +1,828 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Represents a B+tree that stores many elements per node. Every element lives
+ * in a leaf, leaves are linked to each other in sorted order, and internal
+ * nodes only hold separator keys together with the number of elements below
+ * each child. With the default node size of 64 a tree of ten million elements
+ * is only four levels deep, so a search touches a handful of small arrays
+ * instead of chasing a pointer per comparison.
+ *
+ * Removals are lazy: a node is reclaimed once it becomes empty rather than
+ * being merged with its siblings, which keeps removeMin and removeMax cheap
+ * and never invalidates the separator keys used for searching.
+ *
+ * Because elements are not tied to a single tree node, the preorder and
+ * postorder iterators visit the leaves from left to right just like the
+ * inorder iterator, and the BSTreeNode values returned by getRoot, search,
+ * select, removeMin and removeMax are detached copies holding only the
+ * element. getRoot returns the first key stored in the root node.
+ *
+ * @param <E> The type of elements stored in the tree, which must implement Comparable.
+ */
+public class BPlusTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The node size used by the no-argument constructor.
+     */
+    public static final int DEFAULT_NODE_SIZE = 64;
+
+    private final int nodeSize; // Maximum number of elements per leaf and children per internal node
+    private transient Node root;
+    private transient Leaf first;
+    private transient Leaf last;
+    private transient int size;
+    private transient int height;
+    private transient Internal[] pathNodes; // Reusable root-to-leaf path of internal nodes
+    private transient int[] pathIndexes;    // Child index taken at each node of the path
+
+    /**
+     * A node of the tree. For a leaf the count is the number of elements, for
+     * an internal node it is the number of children.
+     */
+    private abstract static class Node {
+
+        int count;
+    }
+
+    /**
+     * A leaf holding sorted elements, linked to its neighbours.
+     */
+    private static final class Leaf extends Node {
+
+        final Object[] keys;
+        Leaf previous;
+        Leaf next;
+
+        /**
+         * Constructs an empty leaf.
+         *
+         * @param capacity the number of element slots, one more than the node
+         * size so that a full leaf can overflow before it is split
+         */
+        Leaf(int capacity) {
+            keys = new Object[capacity];
+        }
+    }
+
+    /**
+     * An internal node. Separator keys[i] is not greater than any element
+     * below children[i + 1] and greater than every element below children[i].
+     * sizes[i] is the number of elements below children[i].
+     */
+    private static final class Internal extends Node {
+
+        final Object[] keys;
+        final Node[] children;
+        final int[] sizes;
+
+        /**
+         * Constructs an empty internal node.
+         *
+         * @param capacity the number of child slots, one more than the node
+         * size so that a full node can overflow before it is split
+         */
+        Internal(int capacity) {
+            keys = new Object[capacity - 1];
+            children = new Node[capacity];
+            sizes = new int[capacity];
+        }
+    }
+
+    /**
+     * Constructs an empty B+tree with the default node size.
+     */
+    public BPlusTree() {
+        this(DEFAULT_NODE_SIZE);
+    }
+
+    /**
+     * Constructs an empty B+tree.
+     *
+     * @param nodeSize the maximum number of elements per leaf and of children
+     * per internal node
+     * @throws IllegalArgumentException if the node size is less than 3
+     */
+    public BPlusTree(int nodeSize) throws IllegalArgumentException {
+        if (nodeSize < 3) {
+            throw new IllegalArgumentException("Node size must be at least 3: " + nodeSize);
+        }
+        this.nodeSize = nodeSize;
+    }
+
+    /**
+     * Retrieves a detached node holding the first key of the root node.
+     *
+     * @return a node holding the first key stored in the root
+     * @throws NullPointerException if the tree is empty
+     */
+    public BSTreeNode<E> getRoot() throws NullPointerException {
+        if (root == null) {
+            throw new NullPointerException("Tree is empty");
+        }
+        Object[] keys = root instanceof Leaf ? ((Leaf) root).keys : ((Internal) root).keys;
+        return new BSTreeNode<>(cast(keys[0]));
+    }
+
+    /**
+     * Returns the number of levels in the tree.
+     *
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Clears all elements from the tree.
+     */
+    public void clear() {
+        root = null;
+        first = null;
+        last = null;
+        size = 0;
+        height = 0;
+    }
+
+    /**
+     * Checks if the tree contains the specified entry.
+     *
+     * @param entry the element to search for
+     * @return true if the element is found, false otherwise
+     * @throws NullPointerException if the entry is null
+     */
+    public boolean contains(E entry) throws NullPointerException {
+        return search(entry) != null;
+    }
+
+    /**
+     * Searches for a specific entry, binary searching one node per level.
+     *
+     * @param entry the element to search for
+     * @return a node holding the element found, or null if not found
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> search(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        if (root == null) {
+            return null;
+        }
+        Node node = root;
+        while (node instanceof Internal) {
+            Internal internal = (Internal) node;
+            node = internal.children[childIndex(internal, entry)];
+        }
+        Leaf leaf = (Leaf) node;
+        int position = leafIndex(leaf, entry);
+        return position < 0 ? null : new BSTreeNode<>(cast(leaf.keys[position]));
+    }
+
+    /**
+     * Adds a new entry to its leaf, splitting full nodes on the way back up.
+     *
+     * @param newEntry the element to be added
+     * @return true if the element was successfully added, false if it already
+     * exists
+     * @throws NullPointerException if the new entry is null
+     */
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) {
+            throw new NullPointerException("Cannot add null entry to the tree");
+        }
+        return insert(newEntry, null) == null;
+    }
+
+    /**
+     * Adds the entry if no equal element is stored, otherwise replaces the
+     * stored element in its leaf with the result of the remapping function.
+     * Either way the leaf is reached in a single descent.
+     *
+     * @param entry the element to be added or combined
+     * @param remapping the function given the stored element and the entry
+     * @return the element stored in the tree after the call
+     * @throws NullPointerException if the entry or the function is null, or if
+     * the function returns null
+     * @throws IllegalArgumentException if the function returns an element that
+     * is not equal to the stored one
+     */
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E> remapping) throws NullPointerException, IllegalArgumentException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException("Cannot merge a null entry or function");
+        }
+        E merged = insert(entry, remapping);
+        return merged == null ? entry : merged;
+    }
+
+    /**
+     * Inserts the entry into its leaf, splitting full nodes on the way back
+     * up, or combines it with the equal element already in the leaf.
+     *
+     * @param newEntry the element to be added
+     * @param remapping the function combining an equal stored element with
+     * the entry, or null to leave the stored element unchanged
+     * @return null if the entry was added, otherwise the element stored in
+     * its place
+     */
+    private E insert(E newEntry, BiFunction<? super E, ? super E, ? extends E> remapping) {
+        if (root == null) {
+            Leaf leaf = new Leaf(nodeSize + 1);
+            leaf.keys[0] = newEntry;
+            leaf.count = 1;
+            root = leaf;
+            first = leaf;
+            last = leaf;
+            size = 1;
+            height = 1;
+            return null;
+        }
+        int depth = descend(newEntry);
+        Leaf leaf = (Leaf) (depth == 0 ? root : pathNodes[depth - 1].children[pathIndexes[depth - 1]]);
+        int position = leafIndex(leaf, newEntry);
+        if (position >= 0) {
+            E existing = cast(leaf.keys[position]);
+            if (remapping == null) {
+                return existing;
+            }
+            E merged = remapping.apply(existing, newEntry);
+            if (merged == null) {
+                throw new NullPointerException("Merge function returned null");
+            }
+            if (merged.compareTo(existing) != 0) {
+                throw new IllegalArgumentException("Merge function changed the key");
+            }
+            leaf.keys[position] = merged;
+            return merged;
+        }
+        position = -position - 1;
+        System.arraycopy(leaf.keys, position, leaf.keys, position + 1, leaf.count - position);
+        leaf.keys[position] = newEntry;
+        leaf.count++;
+        size++;
+        for (int d = 0; d < depth; d++) {
+            pathNodes[d].sizes[pathIndexes[d]]++;
+        }
+        splitUpwards(leaf, depth);
+        return null;
+    }
+
+    /**
+     * Removes the smallest element, which is the first element of the first
+     * leaf.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public BSTreeNode<E> removeMin() {
+        if (size == 0) {
+            return null;
+        }
+        int depth = 0;
+        for (Node node = root; node instanceof Internal; node = ((Internal) node).children[0]) {
+            pushPath(depth++, (Internal) node, 0);
+        }
+        E element = cast(first.keys[0]);
+        removeFromLeaf(first, 0, depth);
+        return new BSTreeNode<>(element);
+    }
+
+    /**
+     * Removes the largest element, which is the last element of the last leaf.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public BSTreeNode<E> removeMax() {
+        if (size == 0) {
+            return null;
+        }
+        int depth = 0;
+        for (Node node = root; node instanceof Internal; node = ((Internal) node).children[node.count - 1]) {
+            pushPath(depth++, (Internal) node, node.count - 1);
+        }
+        E element = cast(last.keys[last.count - 1]);
+        removeFromLeaf(last, last.count - 1, depth);
+        return new BSTreeNode<>(element);
+    }
+
+    /**
+     * Counts the elements smaller than the given entry in a single descent,
+     * adding up the sizes of the children skipped at each level.
+     *
+     * @param entry the element to rank
+     * @return the number of elements in the tree smaller than the entry
+     * @throws NullPointerException if the entry is null
+     */
+    public int rank(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot rank a null entry");
+        }
+        if (root == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node node = root;
+        while (node instanceof Internal) {
+            Internal internal = (Internal) node;
+            int index = childIndex(internal, entry);
+            for (int i = 0; i < index; i++) {
+                rank += internal.sizes[i];
+            }
+            node = internal.children[index];
+        }
+        int position = leafIndex((Leaf) node, entry);
+        return rank + (position >= 0 ? position : -position - 1);
+    }
+
+    /**
+     * Retrieves the element at the given position of the sorted order in a
+     * single descent, skipping whole children by their sizes.
+     *
+     * @param index the zero based position of the element in the natural order
+     * @return a node holding the element at the given position
+     * @throws IndexOutOfBoundsException if the index is negative or not less
+     * than the size of the tree
+     */
+    public BSTreeNode<E> select(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Node node = root;
+        while (node instanceof Internal) {
+            Internal internal = (Internal) node;
+            int child = 0;
+            while (index >= internal.sizes[child]) {
+                index -= internal.sizes[child++];
+            }
+            node = internal.children[child];
+        }
+        return new BSTreeNode<>(cast(((Leaf) node).keys[index]));
+    }
+
+    /**
+     * Returns an iterator that walks the linked leaves in sorted order.
+     *
+     * @return an iterator for inorder traversal
+     */
+    public Iterator<E> inorderIterator() {
+        return new LeafIterator();
+    }
+
+    /**
+     * Returns an iterator over the leaves from left to right. Every element of
+     * a B+tree lives in a leaf, so this is the same order as inorder.
+     *
+     * @return an iterator over the elements in leaf order
+     */
+    public Iterator<E> preorderIterator() {
+        return new LeafIterator();
+    }
+
+    /**
+     * Returns an iterator over the leaves from left to right. Every element of
+     * a B+tree lives in a leaf, so this is the same order as inorder.
+     *
+     * @return an iterator over the elements in leaf order
+     */
+    public Iterator<E> postorderIterator() {
+        return new LeafIterator();
+    }
+
+    /**
+     * Casts a stored key back to the element type.
+     *
+     * @param key the stored key
+     * @return the key as an element
+     */
+    @SuppressWarnings("unchecked")
+    private E cast(Object key) {
+        return (E) key;
+    }
+
+    /**
+     * Binary searches a leaf for the given entry.
+     *
+     * @param leaf the leaf to search
+     * @param entry the element to find
+     * @return the index of the entry, or (-(insertion point) - 1) if absent
+     */
+    private int leafIndex(Leaf leaf, E entry) {
+        int low = 0;
+        int high = leaf.count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compareResult = entry.compareTo(cast(leaf.keys[middle]));
+            if (compareResult == 0) {
+                return middle;
+            } else if (compareResult < 0) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * Finds the child of an internal node that may contain the given entry,
+     * which is the number of separators not greater than the entry.
+     *
+     * @param node the internal node
+     * @param entry the element to route
+     * @return the index of the child to descend into
+     */
+    private int childIndex(Internal node, E entry) {
+        int low = 0;
+        int high = node.count - 2;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (entry.compareTo(cast(node.keys[middle])) < 0) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Records the internal nodes on the path to the leaf for the given entry.
+     *
+     * @param entry the element to route
+     * @return the number of internal nodes on the path
+     */
+    private int descend(E entry) {
+        int depth = 0;
+        Node node = root;
+        while (node instanceof Internal) {
+            Internal internal = (Internal) node;
+            int index = childIndex(internal, entry);
+            pushPath(depth++, internal, index);
+            node = internal.children[index];
+        }
+        return depth;
+    }
+
+    /**
+     * Records an internal node and the child taken at it, growing the path
+     * buffers if needed.
+     *
+     * @param depth the depth of the node, where the root is at depth 0
+     * @param node the internal node
+     * @param index the index of the child taken
+     */
+    private void pushPath(int depth, Internal node, int index) {
+        if (pathNodes == null || depth == pathNodes.length) {
+            int length = Math.max(8, depth * 2);
+            pathNodes = pathNodes == null ? new Internal[length] : Arrays.copyOf(pathNodes, length);
+            pathIndexes = pathIndexes == null ? new int[length] : Arrays.copyOf(pathIndexes, length);
+        }
+        pathNodes[depth] = node;
+        pathIndexes[depth] = index;
+    }
+
+    /**
+     * Returns the number of elements below the given node.
+     *
+     * @param node the node to measure
+     * @return the number of elements in its subtree
+     */
+    private int sizeOf(Node node) {
+        if (node instanceof Leaf) {
+            return node.count;
+        }
+        int total = 0;
+        int[] sizes = ((Internal) node).sizes;
+        for (int i = 0; i < node.count; i++) {
+            total += sizes[i];
+        }
+        return total;
+    }
+
+    /**
+     * Splits the given node if it overflowed, then its parent if that
+     * overflowed in turn, growing a new root when the old one splits.
+     *
+     * @param node the node that just received an element or a child
+     * @param depth the number of internal nodes above it on the path
+     */
+    private void splitUpwards(Node node, int depth) {
+        while (node.count > nodeSize) {
+            Node right;
+            Object separator;
+            if (node instanceof Leaf) {
+                Leaf leaf = (Leaf) node;
+                Leaf sibling = splitLeaf(leaf);
+                right = sibling;
+                separator = sibling.keys[0];
+            } else {
+                Internal internal = (Internal) node;
+                int keep = internal.count / 2;
+                separator = internal.keys[keep - 1];
+                right = splitInternal(internal, keep);
+            }
+            if (depth == 0) {
+                Internal newRoot = new Internal(nodeSize + 1);
+                newRoot.children[0] = node;
+                newRoot.children[1] = right;
+                newRoot.keys[0] = separator;
+                newRoot.sizes[0] = sizeOf(node);
+                newRoot.sizes[1] = sizeOf(right);
+                newRoot.count = 2;
+                root = newRoot;
+                height++;
+                return;
+            }
+            Internal parent = pathNodes[--depth];
+            int index = pathIndexes[depth];
+            System.arraycopy(parent.children, index + 1, parent.children, index + 2, parent.count - index - 1);
+            System.arraycopy(parent.sizes, index + 1, parent.sizes, index + 2, parent.count - index - 1);
+            System.arraycopy(parent.keys, index, parent.keys, index + 1, parent.count - index - 1);
+            parent.children[index + 1] = right;
+            parent.keys[index] = separator;
+            parent.sizes[index] = sizeOf(node);
+            parent.sizes[index + 1] = sizeOf(right);
+            parent.count++;
+            node = parent;
+        }
+    }
+
+    /**
+     * Moves the upper half of a leaf into a new leaf linked right after it.
+     *
+     * @param leaf the leaf to split
+     * @return the new leaf
+     */
+    private Leaf splitLeaf(Leaf leaf) {
+        int keep = leaf.count / 2;
+        Leaf sibling = new Leaf(nodeSize + 1);
+        sibling.count = leaf.count - keep;
+        System.arraycopy(leaf.keys, keep, sibling.keys, 0, sibling.count);
+        Arrays.fill(leaf.keys, keep, leaf.count, null);
+        leaf.count = keep;
+        sibling.previous = leaf;
+        sibling.next = leaf.next;
+        if (leaf.next == null) {
+            last = sibling;
+        } else {
+            leaf.next.previous = sibling;
+        }
+        leaf.next = sibling;
+        return sibling;
+    }
+
+    /**
+     * Moves the children after the given count into a new internal node. The
+     * separator between the two halves is promoted by the caller.
+     *
+     * @param node the internal node to split
+     * @param keep the number of children that stay in the node
+     * @return the new internal node
+     */
+    private Internal splitInternal(Internal node, int keep) {
+        Internal sibling = new Internal(nodeSize + 1);
+        sibling.count = node.count - keep;
+        System.arraycopy(node.children, keep, sibling.children, 0, sibling.count);
+        System.arraycopy(node.sizes, keep, sibling.sizes, 0, sibling.count);
+        System.arraycopy(node.keys, keep, sibling.keys, 0, sibling.count - 1);
+        Arrays.fill(node.children, keep, node.count, null);
+        Arrays.fill(node.keys, keep - 1, node.count - 1, null);
+        node.count = keep;
+        return sibling;
+    }
+
+    /**
+     * Removes the element at the given position of a leaf, then removes any
+     * node that became empty and collapses a root left with a single child.
+     *
+     * @param leaf the leaf holding the element
+     * @param position the index of the element in the leaf
+     * @param depth the number of internal nodes recorded above the leaf
+     */
+    private void removeFromLeaf(Leaf leaf, int position, int depth) {
+        if (size == 1) {
+            clear();
+            return;
+        }
+        System.arraycopy(leaf.keys, position + 1, leaf.keys, position, leaf.count - position - 1);
+        leaf.keys[--leaf.count] = null;
+        size--;
+        for (int d = 0; d < depth; d++) {
+            pathNodes[d].sizes[pathIndexes[d]]--;
+        }
+        if (leaf.count == 0) {
+            if (leaf.previous == null) {
+                first = leaf.next;
+            } else {
+                leaf.previous.next = leaf.next;
+            }
+            if (leaf.next == null) {
+                last = leaf.previous;
+            } else {
+                leaf.next.previous = leaf.previous;
+            }
+            for (int d = depth - 1; d >= 0; d--) {
+                Internal parent = pathNodes[d];
+                removeChild(parent, pathIndexes[d]);
+                if (parent.count > 0) {
+                    break;
+                }
+            }
+        }
+        while (root instanceof Internal && root.count == 1) {
+            root = ((Internal) root).children[0];
+            height--;
+        }
+        // A root that is still a leaf never records a path
+        if (depth > 0) {
+            Arrays.fill(pathNodes, 0, depth, null);
+        }
+    }
+
+    /**
+     * Removes an empty child and the separator next to it from a node.
+     *
+     * @param node the internal node
+     * @param index the index of the child to remove
+     */
+    private void removeChild(Internal node, int index) {
+        int keyIndex = Math.max(index - 1, 0);
+        System.arraycopy(node.children, index + 1, node.children, index, node.count - index - 1);
+        System.arraycopy(node.sizes, index + 1, node.sizes, index, node.count - index - 1);
+        if (node.count > 1) {
+            System.arraycopy(node.keys, keyIndex + 1, node.keys, keyIndex, node.count - keyIndex - 2);
+            node.keys[node.count - 2] = null;
+        }
+        node.count--;
+        node.children[node.count] = null;
+    }
+
+    /**
+     * Replaces the contents of the tree with the given sorted elements by
+     * filling leaves from left to right and building each internal level
+     * above them.
+     *
+     * @param sorted the elements in strictly ascending order
+     */
+    private void buildFromSorted(List<E> sorted) {
+        clear();
+        if (sorted.isEmpty()) {
+            return;
+        }
+        List<Node> level = new ArrayList<>();
+        for (int start = 0; start < sorted.size(); start += nodeSize) {
+            Leaf leaf = new Leaf(nodeSize + 1);
+            leaf.count = Math.min(nodeSize, sorted.size() - start);
+            for (int i = 0; i < leaf.count; i++) {
+                leaf.keys[i] = sorted.get(start + i);
+            }
+            if (last == null) {
+                first = leaf;
+            } else {
+                last.next = leaf;
+                leaf.previous = last;
+            }
+            last = leaf;
+            level.add(leaf);
+        }
+        height = 1;
+        while (level.size() > 1) {
+            List<Node> parents = new ArrayList<>();
+            for (int start = 0; start < level.size(); start += nodeSize) {
+                Internal parent = new Internal(nodeSize + 1);
+                parent.count = Math.min(nodeSize, level.size() - start);
+                for (int i = 0; i < parent.count; i++) {
+                    Node child = level.get(start + i);
+                    parent.children[i] = child;
+                    parent.sizes[i] = sizeOf(child);
+                    if (i > 0) {
+                        parent.keys[i - 1] = smallestKey(child);
+                    }
+                }
+                parents.add(parent);
+            }
+            level = parents;
+            height++;
+        }
+        root = level.get(0);
+        size = sorted.size();
+    }
+
+    /**
+     * Returns the smallest element below the given node.
+     *
+     * @param node the node to inspect
+     * @return the first key of its leftmost leaf
+     */
+    private Object smallestKey(Node node) {
+        while (node instanceof Internal) {
+            node = ((Internal) node).children[0];
+        }
+        return ((Leaf) node).keys[0];
+    }
+
+    /**
+     * Writes the node size, the number of elements and then the elements in
+     * sorted order, without any of the node structure.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.count; i++) {
+                out.writeObject(leaf.keys[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the elements written by writeObject and bulk loads them.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if an element class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        List<E> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add(cast(in.readObject()));
+        }
+        buildFromSorted(elements);
+    }
+
+    /**
+     * Iterator that walks the linked leaves from left to right.
+     */
+    private class LeafIterator implements Iterator<E> {
+
+        private Leaf leaf = first;
+        private int position;
+
+        /**
+         * Checks whether there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return leaf != null && position < leaf.count;
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            E element = cast(leaf.keys[position++]);
+            if (position == leaf.count) {
+                leaf = leaf.next;
+                position = 0;
+            }
+            return element;
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package implementations;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import utilities.BSTreeADT;
 import utilities.Iterator;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a binary search tree (BST) with operations to manipulate and traverse the tree.
@@ -15,12 +28,80 @@ import java.util.NoSuchElementException;
  * 
  * This class implements the BSTreeADT interface.
  * 
+ * A tree is serialized as its elements in sorted order rather than as a graph
+ * of nodes, and is rebuilt perfectly balanced when it is read back.
+ * 
+ * A tree can optionally be constructed in self-balancing mode, in which case
+ * it is kept AVL balanced on every insertion and removal so that its height
+ * stays logarithmic in its size regardless of the order of the input.
+ * 
  * @param <E> The type of elements stored in the tree, which must implement Comparable.
  */
 public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable {
 
-    private BSTreeNode<E> root;
+    private static final long serialVersionUID = 5907685409899986079L;
+
+    private BSTreeNode<E> root; // Serialized as null, the elements follow the fields
     private int size;
+    private final boolean balanced;
+    private transient BSTreeNode<E>[] path; // Reusable root-to-leaf path used while rebalancing
+    private transient TreeStats stats; // Null unless statistics are enabled
+
+    /**
+     * Constructs an empty binary search tree that does not rebalance itself.
+     */
+    public BSTree() {
+        this(false);
+    }
+
+    /**
+     * Constructs an empty binary search tree.
+     *
+     * @param balanced true to keep the tree AVL balanced on every insertion
+     * and removal, false for a plain binary search tree
+     */
+    public BSTree(boolean balanced) {
+        this.balanced = balanced;
+    }
+
+    /**
+     * Checks whether this tree keeps itself balanced.
+     *
+     * @return true if the tree is AVL balanced, false otherwise
+     */
+    public boolean isBalanced() {
+        return balanced;
+    }
+
+    /**
+     * Starts recording statistics about the shape of the tree and the cost of
+     * its insertions, searches and rebalancing. Statistics are not serialized
+     * with the tree.
+     *
+     * @return the statistics of this tree, which keep being updated
+     */
+    public TreeStats enableStats() {
+        if (stats == null) {
+            stats = new TreeStats(this);
+        }
+        return stats;
+    }
+
+    /**
+     * Stops recording statistics, so that operations no longer pay for them.
+     */
+    public void disableStats() {
+        stats = null;
+    }
+
+    /**
+     * Returns the statistics being recorded for this tree.
+     *
+     * @return the statistics, or null if they are not enabled
+     */
+    public TreeStats getStats() {
+        return stats;
+    }
 
     /**
      * Retrieves the root node of the binary search tree.
@@ -36,12 +117,14 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
     }
 
     /**
-     * Calculates the height of the binary search tree.
+     * Returns the height of the binary search tree. The height of every
+     * subtree is kept up to date by the mutating operations, so this takes
+     * constant time.
      *
      * @return the height of the tree
      */
     public int getHeight() {
-        return calculateHeight(root);
+        return heightOf(root);
     }
 
     /**
@@ -71,6 +154,311 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
         size = 0;
     }
 
+    /**
+     * Replaces the contents of the tree with the given elements, which must
+     * already be in strictly ascending order. The tree is built perfectly
+     * balanced in a single linear pass, with no comparisons beyond the check
+     * that the input really is sorted.
+     *
+     * @param sorted the elements in strictly ascending order
+     * @throws NullPointerException if the list or any of its elements is null
+     * @throws IllegalArgumentException if the elements are not in strictly
+     * ascending order
+     */
+    public void buildFromSorted(List<? extends E> sorted) throws NullPointerException, IllegalArgumentException {
+        long startNanos = stats == null ? 0 : System.nanoTime();
+        E[] elements = sorted.toArray(newArray(sorted.size()));
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] == null) {
+                throw new NullPointerException("Cannot add null entry to the tree");
+            }
+            if (i > 0 && elements[i - 1].compareTo(elements[i]) >= 0) {
+                throw new IllegalArgumentException("Elements are not in strictly ascending order at index " + i);
+            }
+        }
+        root = buildBalanced(elements, 0, elements.length);
+        size = elements.length;
+        if (stats != null) {
+            stats.recordRebuild();
+            stats.recordInserts(size, Math.max(size - 1, 0), startNanos);
+            recordDepths(null, 0, size, 0);
+        }
+    }
+
+    /**
+     * Merges the elements of another tree into this one with an ordered
+     * two-way merge of both inorder traversals, then rebuilds this tree
+     * perfectly balanced. Elements present in both trees are replaced by the
+     * result of the combiner, which must compare equal to them. The other tree
+     * is left unchanged. This takes O(n + m) time in total.
+     *
+     * @param other the tree whose elements are merged into this one
+     * @param combiner the function that combines an element of this tree with
+     * the equal element of the other tree
+     * @throws NullPointerException if the other tree or the combiner is null
+     */
+    public void union(BSTreeADT<E> other, BinaryOperator<E> combiner) throws NullPointerException {
+        if (other == null || combiner == null) {
+            throw new NullPointerException("Cannot merge with a null tree or combiner");
+        }
+        long startNanos = stats == null ? 0 : System.nanoTime();
+        E[] merged = newArray(size + other.size());
+        boolean[] inserted = stats == null ? null : new boolean[merged.length];
+        int count = 0;
+        long comparisons = 0;
+        Iterator<E> mine = inorderIterator();
+        Iterator<E> theirs = other.inorderIterator();
+        E a = nextOrNull(mine);
+        E b = nextOrNull(theirs);
+        while (a != null && b != null) {
+            int compareResult = a.compareTo(b);
+            comparisons++;
+            if (compareResult < 0) {
+                merged[count++] = a;
+                a = nextOrNull(mine);
+            } else if (compareResult > 0) {
+                markInserted(inserted, count);
+                merged[count++] = b;
+                b = nextOrNull(theirs);
+            } else {
+                markInserted(inserted, count);
+                merged[count++] = combiner.apply(a, b);
+                a = nextOrNull(mine);
+                b = nextOrNull(theirs);
+            }
+        }
+        for (; a != null; a = nextOrNull(mine)) {
+            merged[count++] = a;
+        }
+        for (; b != null; b = nextOrNull(theirs)) {
+            markInserted(inserted, count);
+            merged[count++] = b;
+        }
+        root = buildBalanced(merged, 0, count);
+        size = count;
+        if (stats != null) {
+            stats.recordRebuild();
+            stats.recordInserts(other.size(), comparisons, startNanos);
+            recordDepths(inserted, 0, count, 0);
+        }
+    }
+
+    /**
+     * Adds every element of the collection that is not already in the tree.
+     * The batch is sorted and stripped of duplicates first, keeping the first
+     * of several equal elements. A batch that is large compared to the tree
+     * is merged with the inorder traversal in one linear pass and the tree is
+     * rebuilt perfectly balanced, like union. A small batch is inserted in
+     * ascending order instead, so that consecutive descents follow nearly the
+     * same path and find it already in cache.
+     *
+     * @param entries the elements to add
+     * @return true if the tree changed, false otherwise
+     * @throws NullPointerException if the collection or any of its elements is
+     * null
+     */
+    public boolean addAll(Collection<? extends E> entries) throws NullPointerException {
+        long startNanos = stats == null ? 0 : System.nanoTime();
+        E[] batch = entries.toArray(newArray(entries.size()));
+        for (E entry : batch) {
+            if (entry == null) {
+                throw new NullPointerException("Cannot add null entry to the tree");
+            }
+        }
+        Arrays.sort(batch);
+        int count = 0;
+        long comparisons = 0;
+        for (int i = 0; i < batch.length; i++) {
+            if (count == 0 || batch[count - 1].compareTo(batch[i]) != 0) {
+                batch[count++] = batch[i];
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+        comparisons += batch.length - 1;
+        if (root == null) {
+            root = buildBalanced(batch, 0, count);
+            size = count;
+            if (stats != null) {
+                stats.recordRebuild();
+                stats.recordInserts(batch.length, comparisons, startNanos);
+                recordDepths(null, 0, count, 0);
+            }
+            return true;
+        }
+        int oldSize = size;
+        if ((long) count * heightOf(root) < size + count) {
+            for (int i = 0; i < count; i++) {
+                insert(batch[i]);
+            }
+            return size != oldSize;
+        }
+        E[] merged = newArray(size + count);
+        boolean[] inserted = stats == null ? null : new boolean[merged.length];
+        int total = 0;
+        int next = 0;
+        Iterator<E> mine = inorderIterator();
+        while (mine.hasNext()) {
+            E element = mine.next();
+            while (next < count && batch[next].compareTo(element) < 0) {
+                comparisons++;
+                markInserted(inserted, total);
+                merged[total++] = batch[next++];
+            }
+            if (next < count) {
+                comparisons += 2;
+                if (batch[next].compareTo(element) == 0) {
+                    next++;
+                }
+            }
+            merged[total++] = element;
+        }
+        while (next < count) {
+            markInserted(inserted, total);
+            merged[total++] = batch[next++];
+        }
+        if (stats != null) {
+            stats.recordInserts(batch.length, comparisons, startNanos);
+        }
+        if (total == oldSize) {
+            return false;
+        }
+        root = buildBalanced(merged, 0, total);
+        size = total;
+        if (stats != null) {
+            stats.recordRebuild();
+            recordDepths(inserted, 0, total, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Marks a position of a merged array as holding an inserted element, when
+     * statistics are being recorded.
+     *
+     * @param inserted the marks, or null if statistics are not enabled
+     * @param index the position of the inserted element
+     */
+    private static void markInserted(boolean[] inserted, int index) {
+        if (inserted != null) {
+            inserted[index] = true;
+        }
+    }
+
+    /**
+     * Records the depth of every inserted element of a tree just built by
+     * buildBalanced, following the same division of the sorted slice.
+     *
+     * @param inserted the positions holding inserted elements, or null if
+     * every element was inserted
+     * @param from the index of the first element of the slice, inclusive
+     * @param to the index of the last element of the slice, exclusive
+     * @param depth the depth of the subtree built from the slice
+     */
+    private void recordDepths(boolean[] inserted, int from, int to, int depth) {
+        if (from >= to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        if (inserted == null || inserted[middle]) {
+            stats.recordDepth(depth);
+        }
+        recordDepths(inserted, from, middle, depth + 1);
+        recordDepths(inserted, middle + 1, to, depth + 1);
+    }
+
+    /**
+     * Advances the given iterator.
+     *
+     * @param it the iterator to advance
+     * @return the next element, or null if the iterator is exhausted
+     */
+    private E nextOrNull(Iterator<E> it) {
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * Builds a perfectly balanced subtree from a sorted slice of elements,
+     * using the middle element as the root. The recursion depth is only
+     * logarithmic in the length of the slice.
+     *
+     * @param elements the elements in ascending order
+     * @param from the index of the first element of the slice, inclusive
+     * @param to the index of the last element of the slice, exclusive
+     * @return the root of the subtree, or null if the slice is empty
+     */
+    private BSTreeNode<E> buildBalanced(E[] elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        BSTreeNode<E> node = new BSTreeNode<>(elements[middle]);
+        node.setLeft(buildBalanced(elements, from, middle));
+        node.setRight(buildBalanced(elements, middle + 1, to));
+        updateNode(node);
+        return node;
+    }
+
+    /**
+     * Writes the fields with a null root, followed by the elements in sorted
+     * order. Leaving the nodes out saves a header and two child references per
+     * element and keeps a degenerate tree from overflowing the stack of the
+     * default recursive serialization.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("root", null);
+        fields.put("size", size);
+        fields.put("balanced", balanced);
+        out.writeFields();
+        Iterator<E> it = inorderIterator();
+        while (it.hasNext()) {
+            out.writeObject(it.next());
+        }
+    }
+
+    /**
+     * Reads a tree written by writeObject and rebuilds it perfectly balanced
+     * from its elements. A tree written with its nodes, as before this form
+     * was introduced, has no balanced field and nodes without heights or
+     * sizes, so it is rebuilt perfectly balanced from the elements of those
+     * nodes instead.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if an element class cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (root == null && size > 0) {
+            E[] elements = newArray(size);
+            for (int i = 0; i < size; i++) {
+                elements[i] = (E) in.readObject();
+            }
+            root = buildBalanced(elements, 0, size);
+        } else if (root != null) {
+            E[] elements = newArray(size);
+            int count = 0;
+            ArrayDeque<BSTreeNode<E>> stack = new ArrayDeque<>();
+            BSTreeNode<E> node = root;
+            while (node != null || !stack.isEmpty()) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.getLeft();
+                }
+                node = stack.pop();
+                elements[count++] = node.getElement();
+                node = node.getRight();
+            }
+            root = buildBalanced(elements, 0, count);
+        }
+    }
+
     /**
      * Removes and returns the node with the minimum value in the binary search
      * tree.
@@ -81,39 +469,33 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
         if (isEmpty()) {
             return null;
         }
-        BSTreeNode<E> minNode = findMinNode(root);
-        root = removeMinNode(root);
+        BSTreeNode<E> minNode = removeMinNode();
         size--;
         return minNode;
     }
 
     /**
-     * Removes the smallest node from the subtree rooted at the given node.
+     * Unlinks the smallest node from the tree by walking down the left spine,
+     * then repairs the bookkeeping of its ancestors.
      *
-     * @param node the root of the subtree
-     * @return the updated subtree after removing the smallest node
+     * @return the node that was unlinked
      */
-    private BSTreeNode<E> removeMinNode(BSTreeNode<E> node) {
-        if (node.getLeft() == null) {
-            return node.getRight();
+    private BSTreeNode<E> removeMinNode() {
+        int depth = 0;
+        BSTreeNode<E> parent = null;
+        BSTreeNode<E> node = root;
+        while (node.getLeft() != null) {
+            pushPath(depth++, node);
+            parent = node;
+            node = node.getLeft();
         }
-        node.setLeft(removeMinNode(node.getLeft()));
-        return node;
-    }
-
-    /**
-     * Finds the node with the smallest value in the subtree rooted at the given
-     * node.
-     *
-     * @param node the root of the subtree
-     * @return the node with the smallest value
-     */
-    private BSTreeNode<E> findMinNode(BSTreeNode<E> node) {
-        BSTreeNode<E> current = node;
-        while (current.getLeft() != null) {
-            current = current.getLeft();
+        if (parent == null) {
+            root = node.getRight();
+        } else {
+            parent.setLeft(node.getRight());
         }
-        return current;
+        repairPath(depth);
+        return node;
     }
 
     /**
@@ -125,43 +507,138 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
         if (isEmpty()) {
             return null;
         }
-        BSTreeNode<E> maxNode = findMaxNode(root);
-        root = removeMaxNode(root);
+        BSTreeNode<E> maxNode = removeMaxNode();
         size--;
         return maxNode;
     }
 
     /**
-     * Removes the largest node from the subtree rooted at the given node.
+     * Unlinks the largest node from the tree by walking down the right spine,
+     * then repairs the bookkeeping of its ancestors.
      *
-     * @param node the root of the subtree
-     * @return the updated subtree after removing the largest node
+     * @return the node that was unlinked
      */
-    private BSTreeNode<E> removeMaxNode(BSTreeNode<E> node) {
-        if (node.getRight() == null) {
-            return node.getLeft();
+    private BSTreeNode<E> removeMaxNode() {
+        int depth = 0;
+        BSTreeNode<E> parent = null;
+        BSTreeNode<E> node = root;
+        while (node.getRight() != null) {
+            pushPath(depth++, node);
+            parent = node;
+            node = node.getRight();
         }
-        node.setRight(removeMaxNode(node.getRight()));
+        if (parent == null) {
+            root = node.getLeft();
+        } else {
+            parent.setRight(node.getLeft());
+        }
+        repairPath(depth);
         return node;
     }
 
     /**
-     * Finds the node with the largest value in the subtree rooted at the given
-     * node.
+     * Removes the given entry from the binary search tree in a single descent.
+     * A node with two children takes the element of its inorder successor,
+     * and the successor's node is unlinked in its place. The ancestors of the
+     * unlinked node are repaired, and rebalanced when the tree is balanced,
+     * so removal takes O(log n) time in a balanced tree.
      *
-     * @param node the root of the subtree
-     * @return the node with the largest value
+     * @param entry the element to remove
+     * @return a detached node holding the removed element, or null if the
+     * element was not in the tree
+     * @throws NullPointerException if the entry is null
      */
-    private BSTreeNode<E> findMaxNode(BSTreeNode<E> node) {
-        BSTreeNode<E> current = node;
-        while (current.getRight() != null) {
-            current = current.getRight();
+    public BSTreeNode<E> remove(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot remove a null entry");
+        }
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.getElement());
+            if (compareResult == 0) {
+                break;
+            }
+            pushPath(depth++, node);
+            node = compareResult < 0 ? node.getLeft() : node.getRight();
         }
-        return current;
+        if (node == null) {
+            clearPath(depth);
+            return null;
+        }
+        BSTreeNode<E> removed = node;
+        if (node.getLeft() != null && node.getRight() != null) {
+            pushPath(depth++, node);
+            removed = node.getRight();
+            while (removed.getLeft() != null) {
+                pushPath(depth++, removed);
+                removed = removed.getLeft();
+            }
+            E element = node.getElement();
+            node.setData(removed.getElement());
+            removed.setData(element);
+            if (path[depth - 1] == node) {
+                node.setRight(removed.getRight());
+            } else {
+                path[depth - 1].setLeft(removed.getRight());
+            }
+        } else {
+            BSTreeNode<E> child = node.getLeft() != null ? node.getLeft() : node.getRight();
+            if (depth == 0) {
+                root = child;
+            } else if (path[depth - 1].getLeft() == node) {
+                path[depth - 1].setLeft(child);
+            } else {
+                path[depth - 1].setRight(child);
+            }
+        }
+        size--;
+        repairPath(depth);
+        removed.setLeft(null);
+        removed.setRight(null);
+        updateNode(removed);
+        return removed;
+    }
+
+    /**
+     * Removes every element that passes the filter in a single inorder pass,
+     * then rebuilds the tree perfectly balanced from the remaining elements.
+     * This takes O(n) time however many elements are removed, which beats
+     * repeated calls to remove when the filter matches a large share of the
+     * tree.
+     *
+     * @param filter the test that selects the elements to remove
+     * @return true if any element was removed, false otherwise
+     * @throws NullPointerException if the filter is null
+     */
+    public boolean removeIf(Predicate<? super E> filter) throws NullPointerException {
+        if (filter == null) {
+            throw new NullPointerException("Filter cannot be null");
+        }
+        E[] remaining = newArray(size);
+        int count = 0;
+        Iterator<E> it = inorderIterator();
+        while (it.hasNext()) {
+            E element = it.next();
+            if (!filter.test(element)) {
+                remaining[count++] = element;
+            }
+        }
+        if (count == size) {
+            return false;
+        }
+        root = buildBalanced(remaining, 0, count);
+        size = count;
+        if (stats != null) {
+            stats.recordRebuild();
+        }
+        return true;
     }
 
     /**
-     * Adds a new entry to the binary search tree.
+     * Adds a new entry to the binary search tree. The insertion point is found
+     * with a loop rather than recursion, so a degenerate tree costs time but
+     * never stack depth.
      *
      * @param newEntry the element to be added
      * @return true if the element was successfully added, false if it already
@@ -172,43 +649,87 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
         if (newEntry == null) {
             throw new NullPointerException("Cannot add null entry to the tree");
         }
-        if (root == null) {
-            root = new BSTreeNode<>(newEntry);
-            size++;
-            return true;
-        } else {
-            return addRecursively(root, newEntry);
+        return insert(newEntry) == null;
+    }
+
+    /**
+     * Adds the entry if no equal element is stored, otherwise replaces the
+     * stored element with the result of the remapping function. The node is
+     * found or created in a single descent.
+     *
+     * @param entry the element to be added or combined
+     * @param remapping the function given the stored element and the entry
+     * @return the element stored in the tree after the call
+     * @throws NullPointerException if the entry or the function is null, or if
+     * the function returns null
+     * @throws IllegalArgumentException if the function returns an element that
+     * is not equal to the stored one
+     */
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E> remapping) throws NullPointerException, IllegalArgumentException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException("Cannot merge a null entry or function");
+        }
+        BSTreeNode<E> existing = insert(entry);
+        if (existing == null) {
+            return entry;
+        }
+        E merged = remapping.apply(existing.getElement(), entry);
+        if (merged == null) {
+            throw new NullPointerException("Merge function returned null");
         }
+        if (merged.compareTo(existing.getElement()) != 0) {
+            throw new IllegalArgumentException("Merge function changed the key");
+        }
+        existing.setData(merged);
+        return merged;
     }
 
     /**
-     * Recursively adds a new entry to the appropriate location in the tree.
+     * Walks down to the entry with a loop rather than recursion, so a
+     * degenerate tree costs time but never stack depth, and links a new leaf
+     * where the search ends if the entry is missing.
      *
-     * @param node the current node in the tree
      * @param newEntry the element to be added
-     * @return true if the element was successfully added, false if it already
-     * exists
+     * @return the node already holding an equal element, or null if the entry
+     * was added
      */
-    private boolean addRecursively(BSTreeNode<E> node, E newEntry) {
-        int compareResult = newEntry.compareTo(node.getElement());
-        if (compareResult == 0) {
-            return false;
-        } else if (compareResult < 0) {
-            if (node.getLeft() == null) {
-                node.setLeft(new BSTreeNode<>(newEntry));
-                size++;
-                return true;
-            } else {
-                return addRecursively(node.getLeft(), newEntry);
+    private BSTreeNode<E> insert(E newEntry) {
+        long startNanos = stats == null ? 0 : System.nanoTime();
+        if (root == null) {
+            root = new BSTreeNode<>(newEntry);
+            size++;
+            if (stats != null) {
+                stats.recordInsert(0, 0, startNanos);
             }
-        } else {
-            if (node.getRight() == null) {
-                node.setRight(new BSTreeNode<>(newEntry));
+            return null;
+        }
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        while (true) {
+            int compareResult = newEntry.compareTo(node.getElement());
+            if (compareResult == 0) {
+                clearPath(depth);
+                if (stats != null) {
+                    stats.recordInsert(depth + 1, depth, startNanos);
+                }
+                return node;
+            }
+            pushPath(depth++, node);
+            BSTreeNode<E> next = compareResult < 0 ? node.getLeft() : node.getRight();
+            if (next == null) {
+                if (compareResult < 0) {
+                    node.setLeft(new BSTreeNode<>(newEntry));
+                } else {
+                    node.setRight(new BSTreeNode<>(newEntry));
+                }
                 size++;
-                return true;
-            } else {
-                return addRecursively(node.getRight(), newEntry);
+                repairPath(depth);
+                if (stats != null) {
+                    stats.recordInsert(depth, depth, startNanos);
+                }
+                return null;
             }
+            node = next;
         }
     }
 
@@ -231,85 +752,495 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
      * @throws NullPointerException if the entry is null
      */
     public BSTreeNode<E> search(E entry) throws NullPointerException {
-        return searchRecursively(root, entry);
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        long startNanos = stats == null ? 0 : System.nanoTime();
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.getElement());
+            if (compareResult == 0) {
+                break;
+            }
+            node = compareResult < 0 ? node.getLeft() : node.getRight();
+            depth++;
+        }
+        if (stats != null) {
+            stats.recordSearch(node == null ? depth : depth + 1, node == null ? Math.max(depth - 1, 0) : depth, startNanos);
+        }
+        return node;
     }
 
     /**
-     * Recursively searches for a specific entry in the binary search tree.
+     * Counts the elements smaller than the given entry in a single descent,
+     * using the subtree sizes stored in the nodes.
      *
-     * @param node the current node in the tree
-     * @param entry the element to search for
-     * @return the node containing the element, or null if not found
+     * @param entry the element to rank
+     * @return the number of elements in the tree smaller than the entry
+     * @throws NullPointerException if the entry is null
      */
-    private BSTreeNode<E> searchRecursively(BSTreeNode<E> node, E entry) {
-        if (node == null) {
-            return null;
+    public int rank(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot rank a null entry");
         }
-        int compareResult = entry.compareTo(node.getElement());
-        if (compareResult == 0) {
-            return node;
-        } else if (compareResult < 0) {
-            return searchRecursively(node.getLeft(), entry);
-        } else {
-            return searchRecursively(node.getRight(), entry);
+        int rank = 0;
+        BSTreeNode<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.getElement());
+            if (compareResult < 0) {
+                node = node.getLeft();
+            } else {
+                rank += sizeOf(node.getLeft());
+                if (compareResult == 0) {
+                    return rank;
+                }
+                rank++;
+                node = node.getRight();
+            }
         }
+        return rank;
     }
 
     /**
-     * Calculates the height of the binary search tree from the specified node.
+     * Retrieves the node at the given position of the inorder traversal in a
+     * single descent, using the subtree sizes stored in the nodes.
      *
-     * @param node the current node in the tree
-     * @return the height of the tree rooted at the specified node
+     * @param index the zero based position of the element in the natural order
+     * @return the node with the element at the given position
+     * @throws IndexOutOfBoundsException if the index is negative or not less
+     * than the size of the tree
      */
-    private int calculateHeight(BSTreeNode<E> node) {
-        if (node == null) {
-            return 0;
+    public BSTreeNode<E> select(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        BSTreeNode<E> node = root;
+        while (true) {
+            int leftSize = sizeOf(node.getLeft());
+            if (index < leftSize) {
+                node = node.getLeft();
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.getRight();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the node holding the largest element that is less than or
+     * equal to the given entry.
+     *
+     * @param entry the element to compare against
+     * @return the node with the greatest element not above the entry, or null
+     * if there is none
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> floor(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
         }
-        int leftHeight = calculateHeight(node.getLeft());
-        int rightHeight = calculateHeight(node.getRight());
-        return 1 + Math.max(leftHeight, rightHeight);
+        BSTreeNode<E> best = null;
+        BSTreeNode<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.getElement());
+            if (compareResult == 0) {
+                return node;
+            } else if (compareResult < 0) {
+                node = node.getLeft();
+            } else {
+                best = node;
+                node = node.getRight();
+            }
+        }
+        return best;
     }
 
     /**
-     * Calculates the height of the binary search tree from the specified node.
+     * Retrieves the node holding the smallest element that is greater than or
+     * equal to the given entry.
      *
-     * @return the height of the tree rooted at the specified node
+     * @param entry the element to compare against
+     * @return the node with the least element not below the entry, or null if
+     * there is none
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> ceiling(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        BSTreeNode<E> best = null;
+        BSTreeNode<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.getElement());
+            if (compareResult == 0) {
+                return node;
+            } else if (compareResult > 0) {
+                node = node.getRight();
+            } else {
+                best = node;
+                node = node.getLeft();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Records a node at the given depth of the current root-to-leaf path,
+     * growing the path buffer if needed.
+     *
+     * @param depth the depth of the node, where the root is at depth 0
+     * @param node the node on the path
+     */
+    private void pushPath(int depth, BSTreeNode<E> node) {
+        if (path == null) {
+            path = newPath(16);
+        } else if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth] = node;
+    }
+
+    /**
+     * Forgets the first nodes of the recorded path so removed nodes are not
+     * kept reachable by the path buffer.
+     *
+     * @param depth the number of recorded nodes
+     */
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) {
+            path[i] = null;
+        }
+    }
+
+    /**
+     * Creates an array for the elements of a tree. Every element is
+     * Comparable, so an array of Comparable can hold any of them.
+     *
+     * @param <T> the type of elements
+     * @param length the length of the array
+     * @return a new array of the given length
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Comparable<? super T>> T[] newArray(int length) {
+        return (T[]) new Comparable<?>[length];
+    }
+
+    /**
+     * Creates an array for the nodes on a path through a tree.
+     *
+     * @param <T> the type of elements
+     * @param length the length of the array
+     * @return a new array of the given length
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Comparable<? super T>> BSTreeNode<T>[] newPath(int length) {
+        return (BSTreeNode<T>[]) new BSTreeNode<?>[length];
+    }
+
+    /**
+     * Repairs the height and size of every node on the recorded path from the
+     * deepest one back up to the root. When the tree is balanced each node is
+     * also rebalanced and rotated subtrees are relinked into their parents.
+     *
+     * @param depth the number of recorded nodes
+     */
+    private void repairPath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            BSTreeNode<E> node = path[i];
+            if (!balanced) {
+                updateNode(node);
+            } else {
+                BSTreeNode<E> subtree = rebalance(node);
+                if (subtree != node) {
+                    if (i == 0) {
+                        root = subtree;
+                    } else if (path[i - 1].getLeft() == node) {
+                        path[i - 1].setLeft(subtree);
+                    } else {
+                        path[i - 1].setRight(subtree);
+                    }
+                }
+            }
+            path[i] = null;
+        }
+    }
+
+    /**
+     * Returns the stored height of the given node, treating null as an empty
+     * subtree of height 0.
+     *
+     * @param node the node to inspect, may be null
+     * @return the stored height of the node
+     */
+    private int heightOf(BSTreeNode<E> node) {
+        return node == null ? 0 : node.getHeight();
+    }
+
+    /**
+     * Returns the stored subtree size of the given node, treating null as an
+     * empty subtree.
+     *
+     * @param node the node to inspect, may be null
+     * @return the number of elements in the subtree rooted at the node
+     */
+    private int sizeOf(BSTreeNode<E> node) {
+        return node == null ? 0 : node.getSize();
+    }
+
+    /**
+     * Recomputes the stored height and subtree size of the given node from its
+     * children.
+     *
+     * @param node the node to update
+     */
+    private void updateNode(BSTreeNode<E> node) {
+        node.setHeight(1 + Math.max(heightOf(node.getLeft()), heightOf(node.getRight())));
+        node.setSize(1 + sizeOf(node.getLeft()) + sizeOf(node.getRight()));
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the left.
+     *
+     * @param node the root of the subtree, which must have a right child
+     * @return the new root of the subtree
+     */
+    private BSTreeNode<E> rotateLeft(BSTreeNode<E> node) {
+        if (stats != null) {
+            stats.recordRotation();
+        }
+        BSTreeNode<E> pivot = node.getRight();
+        node.setRight(pivot.getLeft());
+        pivot.setLeft(node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the right.
+     *
+     * @param node the root of the subtree, which must have a left child
+     * @return the new root of the subtree
+     */
+    private BSTreeNode<E> rotateRight(BSTreeNode<E> node) {
+        if (stats != null) {
+            stats.recordRotation();
+        }
+        BSTreeNode<E> pivot = node.getLeft();
+        node.setLeft(pivot.getRight());
+        pivot.setRight(node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Updates the bookkeeping of the given node and performs the single or double
+     * rotation needed to bring its balance factor back within one.
+     *
+     * @param node the root of a subtree whose children are already balanced
+     * @return the new root of the subtree
+     */
+    private BSTreeNode<E> rebalance(BSTreeNode<E> node) {
+        updateNode(node);
+        int balance = heightOf(node.getLeft()) - heightOf(node.getRight());
+        if (balance > 1) {
+            if (heightOf(node.getLeft().getLeft()) < heightOf(node.getLeft().getRight())) {
+                node.setLeft(rotateLeft(node.getLeft()));
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (heightOf(node.getRight().getRight()) < heightOf(node.getRight().getLeft())) {
+                node.setRight(rotateRight(node.getRight()));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Returns an iterator for traversing the binary search tree in inorder.
+     * The tree is walked lazily, so each element is produced on demand.
+     *
+     * @return an iterator for inorder traversal
      */
     public Iterator<E> inorderIterator() {
         return new InorderIterator(root);
     }
 
+    /**
+     * Returns a lazy inorder iterator over the elements strictly less than the
+     * given bound.
+     *
+     * @param toElement the exclusive upper bound
+     * @return an iterator over the elements below the bound
+     * @throws NullPointerException if the bound is null
+     */
+    public Iterator<E> headSet(E toElement) throws NullPointerException {
+        if (toElement == null) {
+            throw new NullPointerException("Range bound cannot be null");
+        }
+        return new InorderIterator(root, null, element -> element.compareTo(toElement) < 0);
+    }
+
+    /**
+     * Returns a lazy inorder iterator over the elements greater than or equal
+     * to the given bound. Only the path to the first element is visited before
+     * iteration starts.
+     *
+     * @param fromElement the inclusive lower bound
+     * @return an iterator over the elements from the bound onwards
+     * @throws NullPointerException if the bound is null
+     */
+    public Iterator<E> tailSet(E fromElement) throws NullPointerException {
+        if (fromElement == null) {
+            throw new NullPointerException("Range bound cannot be null");
+        }
+        return new InorderIterator(root, fromElement, null);
+    }
+
+    /**
+     * Returns a lazy inorder iterator over the elements between the given
+     * bounds, visiting only O(log n + k) nodes for k results in a balanced
+     * tree.
+     *
+     * @param fromElement the inclusive lower bound
+     * @param toElement the exclusive upper bound
+     * @return an iterator over the elements in the range
+     * @throws NullPointerException if either bound is null
+     */
+    public Iterator<E> subSet(E fromElement, E toElement) throws NullPointerException {
+        if (fromElement == null || toElement == null) {
+            throw new NullPointerException("Range bound cannot be null");
+        }
+        return new InorderIterator(root, fromElement, element -> element.compareTo(toElement) < 0);
+    }
+
+    /**
+     * Returns a lazy inorder iterator that starts at the given lower bound and
+     * stops at the first element that fails the condition. This supports
+     * prefix scans: start from the smallest possible element with the prefix
+     * and continue while elements still carry it.
+     *
+     * @param fromElement the inclusive lower bound
+     * @param condition the test every returned element must pass; iteration
+     * ends at the first element that fails it
+     * @return an iterator over the matching run of elements
+     * @throws NullPointerException if the bound or the condition is null
+     */
+    public Iterator<E> scan(E fromElement, Predicate<? super E> condition) throws NullPointerException {
+        if (fromElement == null || condition == null) {
+            throw new NullPointerException("Range bound cannot be null");
+        }
+        return new InorderIterator(root, fromElement, condition);
+    }
+
+    /**
+     * Returns a spliterator over the elements in ascending order. It splits
+     * at subtree boundaries, handing the left subtree of its current root to
+     * the new spliterator, and knows the exact size of every part from the
+     * stored subtree sizes. The tree must not be modified while the
+     * spliterator is in use.
+     *
+     * @return a spliterator over the elements of the tree
+     */
+    public Spliterator<E> spliterator() {
+        return new SubtreeSpliterator(null, root);
+    }
+
+    /**
+     * Returns a sequential stream over the elements in ascending order.
+     *
+     * @return a stream of the elements of the tree
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the elements in ascending order, whose
+     * work is divided at subtree boundaries.
+     *
+     * @return a possibly parallel stream of the elements of the tree
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Iterator for traversing the elements of the binary search tree in
+     * inorder. Only the path from the root to the next node is kept on an
+     * explicit stack, so the extra memory is bounded by the tree height and
+     * each call to next() takes amortized constant time. The iteration can be
+     * restricted to a range by giving a lower bound and an upper limit.
+     */
     private class InorderIterator implements Iterator<E> {
 
-        private List<E> elements;
-        private int index;
+        private final ArrayDeque<BSTreeNode<E>> stack;
+        private final Predicate<? super E> limit;
 
         /**
-         * Constructs an InorderIterato with the specified root node. Traverses
-         * the tree rooted at the given node in inorder and stores the elements
-         * in the list.
+         * Constructs an InorderIterator with the specified root node by
+         * descending to the smallest element.
          *
          * @param root the root node of the binary search tree
          */
         public InorderIterator(BSTreeNode<E> root) {
-            elements = new LinkedList<>();
-            index = 0;
-            inorderTraversal(root);
+            this(root, null, null);
         }
 
         /**
-         * Performs an inorder traversal of the binary search tree rooted at the
-         * specified node, storing the elements in the list.
+         * Constructs an InorderIterator that starts at the smallest element
+         * not below the lower bound and ends before the first element that
+         * fails the limit.
          *
-         * @param node the current node in the traversal
+         * @param root the root node of the binary search tree
+         * @param fromElement the inclusive lower bound, or null for none
+         * @param limit the test elements must pass, or null for none
          */
-        private void inorderTraversal(BSTreeNode<E> node) {
-            if (node == null) {
-                return;
+        public InorderIterator(BSTreeNode<E> root, E fromElement, Predicate<? super E> limit) {
+            stack = new ArrayDeque<>();
+            this.limit = limit;
+            if (fromElement == null) {
+                pushLeftSpine(root);
+            } else {
+                seek(root, fromElement);
+            }
+        }
+
+        /**
+         * Pushes the ancestors whose elements are not below the lower bound,
+         * leaving the smallest such element on top of the stack.
+         *
+         * @param node the node to start from, may be null
+         * @param fromElement the inclusive lower bound
+         */
+        private void seek(BSTreeNode<E> node, E fromElement) {
+            while (node != null) {
+                if (fromElement.compareTo(node.getElement()) <= 0) {
+                    stack.push(node);
+                    node = node.getLeft();
+                } else {
+                    node = node.getRight();
+                }
+            }
+        }
+
+        /**
+         * Pushes the given node and all of its left descendants onto the
+         * stack.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushLeftSpine(BSTreeNode<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft();
             }
-            inorderTraversal(node.getLeft());
-            elements.add(node.getElement());
-            inorderTraversal(node.getRight());
         }
 
         /**
@@ -319,7 +1250,7 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
          */
         @Override
         public boolean hasNext() {
-            return index < elements.size();
+            return !stack.isEmpty() && (limit == null || limit.test(stack.peek().getElement()));
         }
 
         /**
@@ -334,38 +1265,40 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
             if (!hasNext()) {
                 throw new NoSuchElementException("No more elements in the tree");
             }
-            return elements.get(index++);
+            BSTreeNode<E> node = stack.pop();
+            pushLeftSpine(node.getRight());
+            return node.getElement();
         }
+    }
 
-        public Iterator<E> preorderIterator() {
-            return new PreorderIterator(root);
-        }
+    /**
+     * Returns an iterator for traversing the binary search tree in preorder.
+     *
+     * @return an iterator for preorder traversal
+     */
+    public Iterator<E> preorderIterator() {
+        return new PreorderIterator(root);
     }
 
+    /**
+     * Iterator for traversing the elements of the binary search tree in
+     * preorder. Pending right subtrees are kept on an explicit stack, so the
+     * extra memory is bounded by the tree height.
+     */
     private class PreorderIterator implements Iterator<E> {
 
-        private List<E> elements;
-        private int index;
-
-        public PreorderIterator(BSTreeNode<E> root) {
-            elements = new LinkedList<>();
-            index = 0;
-            preorderTraversal(root);
-        }
+        private final ArrayDeque<BSTreeNode<E>> stack;
 
         /**
-         * Recursively traverses the subtree in preorder and collects the
-         * elements.
+         * Constructs a new PreorderIterator for the binary search tree.
          *
-         * @param node the root node of the subtree to traverse
+         * @param root the root node of the tree to iterate over
          */
-        private void preorderTraversal(BSTreeNode<E> node) {
-            if (node == null) {
-                return;
+        public PreorderIterator(BSTreeNode<E> root) {
+            stack = new ArrayDeque<>();
+            if (root != null) {
+                stack.push(root);
             }
-            elements.add(node.getElement());
-            preorderTraversal(node.getLeft());
-            preorderTraversal(node.getRight());
         }
 
         /**
@@ -375,7 +1308,7 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
          */
         @Override
         public boolean hasNext() {
-            return index < elements.size();
+            return !stack.isEmpty();
         }
 
         /**
@@ -390,14 +1323,17 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
             if (!hasNext()) {
                 throw new NoSuchElementException("No more elements in the tree");
             }
-            return elements.get(index++);
+            BSTreeNode<E> node = stack.pop();
+            if (node.getRight() != null) {
+                stack.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                stack.push(node.getLeft());
+            }
+            return node.getElement();
         }
     }
 
-    public Iterator<E> preorderIterator() {
-        return new PreorderIterator(root);
-    }
-
     /**
      * Returns an iterator for traversing the binary search tree in postorder.
      *
@@ -409,14 +1345,14 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 
     /**
      * Iterator for traversing the elements of the binary search tree in
-     * postorder.
+     * postorder. The stack holds the ancestors of the next node to visit, so
+     * the extra memory is bounded by the tree height.
      *
      * @generic type E the type of elements stored in the tree
      */
     private class PostorderIterator implements Iterator<E> {
 
-        private List<E> elements;
-        private int index;
+        private final ArrayDeque<BSTreeNode<E>> stack;
 
         /**
          * Constructs a new PostorderIterator for the binary search tree.
@@ -424,24 +1360,21 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
          * @param root the root node of the tree to iterate over
          */
         public PostorderIterator(BSTreeNode<E> root) {
-            elements = new LinkedList<>();
-            index = 0;
-            postorderTraversal(root);
+            stack = new ArrayDeque<>();
+            pushFirstLeaf(root);
         }
 
         /**
-         * Recursively traverses the subtree in postorder and collects the
-         * elements.
+         * Pushes the path from the given node down to the first node that is
+         * visited in postorder, preferring left children over right ones.
          *
-         * @param node the root node of the subtree to traverse
+         * @param node the node to start from, may be null
          */
-        private void postorderTraversal(BSTreeNode<E> node) {
-            if (node == null) {
-                return;
+        private void pushFirstLeaf(BSTreeNode<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft() != null ? node.getLeft() : node.getRight();
             }
-            postorderTraversal(node.getLeft());
-            postorderTraversal(node.getRight());
-            elements.add(node.getElement());
         }
 
         /**
@@ -451,7 +1384,7 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
          */
         @Override
         public boolean hasNext() {
-            return index < elements.size();
+            return !stack.isEmpty();
         }
 
         /**
@@ -466,7 +1399,149 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
             if (!hasNext()) {
                 throw new NoSuchElementException("No more elements in the tree");
             }
-            return elements.get(index++);
+            BSTreeNode<E> node = stack.pop();
+            if (!stack.isEmpty()) {
+                BSTreeNode<E> parent = stack.peek();
+                if (parent.getLeft() == node) {
+                    pushFirstLeaf(parent.getRight());
+                }
+            }
+            return node.getElement();
+        }
+    }
+
+    /**
+     * Spliterator over an optional leading node followed by a whole subtree.
+     * Splitting hands the leading node and the left subtree to a new
+     * spliterator and keeps the root of the subtree as the new leading node
+     * in front of its right subtree, so both halves have the same shape and
+     * an exact size. Once traversal has started the remaining nodes are kept
+     * on a stack and the spliterator no longer splits.
+     */
+    private class SubtreeSpliterator implements Spliterator<E> {
+
+        private BSTreeNode<E> leading;
+        private BSTreeNode<E> subtree;
+        private ArrayDeque<BSTreeNode<E>> stack;
+        private long remaining;
+
+        /**
+         * Constructs a spliterator over the leading node, if any, followed by
+         * the elements of the subtree.
+         *
+         * @param leading the node visited first, may be null
+         * @param subtree the subtree visited after it, may be null
+         */
+        public SubtreeSpliterator(BSTreeNode<E> leading, BSTreeNode<E> subtree) {
+            this.leading = leading;
+            this.subtree = subtree;
+            this.remaining = (leading == null ? 0 : 1) + sizeOf(subtree);
+        }
+
+        /**
+         * Splits off the leading node and the left subtree as a prefix.
+         *
+         * @return a spliterator over the prefix, or null if this spliterator
+         * has started traversing or has no subtree left to split
+         */
+        @Override
+        public Spliterator<E> trySplit() {
+            if (stack != null || subtree == null) {
+                return null;
+            }
+            SubtreeSpliterator prefix = new SubtreeSpliterator(leading, subtree.getLeft());
+            leading = subtree;
+            subtree = subtree.getRight();
+            remaining -= prefix.remaining;
+            return prefix;
+        }
+
+        /**
+         * Performs the action on the next element, if there is one.
+         *
+         * @param action the action to perform
+         * @return false if no elements remained, true otherwise
+         * @throws NullPointerException if the action is null
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) throws NullPointerException {
+            if (action == null) {
+                throw new NullPointerException("Action cannot be null");
+            }
+            if (stack == null) {
+                stack = new ArrayDeque<>();
+                pushLeftSpine(subtree);
+                if (leading != null) {
+                    stack.push(leading);
+                }
+            }
+            if (stack.isEmpty()) {
+                return false;
+            }
+            BSTreeNode<E> node = stack.pop();
+            if (node != leading) {
+                pushLeftSpine(node.getRight());
+            }
+            remaining--;
+            action.accept(node.getElement());
+            return true;
+        }
+
+        /**
+         * Performs the action on each remaining element.
+         *
+         * @param action the action to perform
+         * @throws NullPointerException if the action is null
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) throws NullPointerException {
+            while (tryAdvance(action)) {
+                // Each call visits one element
+            }
+        }
+
+        /**
+         * Pushes the given node and all of its left descendants onto the
+         * stack.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushLeftSpine(BSTreeNode<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft();
+            }
+        }
+
+        /**
+         * Returns the exact number of elements left.
+         *
+         * @return the number of elements left
+         */
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        /**
+         * Reports that the elements are sorted, distinct, non-null and of
+         * known size, including after splitting.
+         *
+         * @return the characteristics of this spliterator
+         */
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+
+        /**
+         * Returns null because the elements are in their natural order.
+         *
+         * @return null
+         */
+        @Override
+        public Comparator<? super E> getComparator() {
+            return null;
         }
     }
 }
@@ -9,14 +9,21 @@ import java.io.Serializable;
  * @param <E> The type of elements stored in the node, which must implement Comparable.
  */
 public class BSTreeNode<E extends Comparable<? super E>> implements Serializable {
+
+    private static final long serialVersionUID = -770378289439228086L;
+
     private E data;
     private BSTreeNode<E> left;
     private BSTreeNode<E> right;
+    private int height;
+    private int size;
 
     public BSTreeNode(E data) {
         this.data = data;
         left = null;
         right = null;
+        height = 1;
+        size = 1;
     }
 
     /**
@@ -72,4 +79,42 @@ public class BSTreeNode<E extends Comparable<? super E>> implements Serializable
     public void setRight(BSTreeNode<E> right) {
         this.right = right;
     }
+
+    /**
+     * Retrieves the height of the subtree rooted at this node, where a leaf
+     * has a height of 1.
+     *
+     * @return the height of the subtree rooted at this node
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Sets the height of the subtree rooted at this node.
+     *
+     * @param height the height of the subtree rooted at this node
+     */
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    /**
+     * Retrieves the number of elements in the subtree rooted at this node,
+     * including this node itself.
+     *
+     * @return the number of elements in the subtree rooted at this node
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the number of elements in the subtree rooted at this node.
+     *
+     * @param size the number of elements in the subtree rooted at this node
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
 }
@@ -0,0 +1,725 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * Represents a thread-safe binary search tree that many threads can add to and
+ * search at the same time.
+ *
+ * Readers never lock: contains, search and the iterators only follow volatile
+ * child links, so they finish in a number of steps bounded by the depth of the
+ * tree no matter what other threads are doing. Writers take no lock shared by
+ * the whole tree. An add locks only the node it attaches a new leaf to, and a
+ * merge locks only the node holding the equal element, so writers only wait
+ * for each other when they meet at the same node. The structural removals
+ * (removeMin, removeMax and clear) are serialized among themselves by a lock
+ * that adds never take. A removed node is marked under its own lock, and an
+ * add that finds its parent marked starts again from the root.
+ *
+ * The tree does not rebalance itself, because rotations would have to lock
+ * every node they move. Its depth depends on the order of the adds, so
+ * elements added in sorted order build a tree as deep as it is large. Callers
+ * that add sorted data should use BSTree, or shuffle the data first. The size,
+ * height, rank, select and the iterators are weakly consistent: they are
+ * exact when no other thread is changing the tree, and otherwise may or may
+ * not reflect the changes made while they run.
+ *
+ * Nodes are internal to this class, so the BSTreeNode values returned by
+ * getRoot, search, select, removeMin and removeMax are detached copies holding
+ * only the element.
+ *
+ * @param <E> The type of elements stored in the tree, which must implement Comparable.
+ */
+public class ConcurrentBSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentBSTree, Node> ROOT
+            = AtomicReferenceFieldUpdater.newUpdater(ConcurrentBSTree.class, Node.class, "root");
+
+    private transient volatile Node<E> root;
+    private transient LongAdder size = new LongAdder();
+    private transient ReentrantLock removalLock = new ReentrantLock();
+
+    /**
+     * A tree node whose child links are published with volatile writes. An
+     * empty child link is only filled, and the node only marked as removed,
+     * while holding the node's own lock.
+     *
+     * @param <E> the type of element stored in the node
+     */
+    private static final class Node<E> {
+
+        private volatile E element;
+        private volatile Node<E> left;
+        private volatile Node<E> right;
+        private boolean removed;
+
+        /**
+         * Constructs a leaf node holding the given element.
+         *
+         * @param element the element to store
+         */
+        Node(E element) {
+            this.element = element;
+        }
+    }
+
+    /**
+     * Retrieves a detached copy of the root node of the tree.
+     *
+     * @return a node holding the element currently at the root
+     * @throws NullPointerException if the tree is empty
+     */
+    public BSTreeNode<E> getRoot() throws NullPointerException {
+        Node<E> current = root;
+        if (current == null) {
+            throw new NullPointerException("Tree is empty");
+        }
+        return new BSTreeNode<>(current.element);
+    }
+
+    /**
+     * Calculates the height of the tree by walking it one level at a time.
+     *
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        Node<E> current = root;
+        if (current == null) {
+            return 0;
+        }
+        ArrayDeque<Node<E>> level = new ArrayDeque<>();
+        level.add(current);
+        int height = 0;
+        while (!level.isEmpty()) {
+            height++;
+            for (int count = level.size(); count > 0; count--) {
+                Node<E> node = level.poll();
+                Node<E> left = node.left;
+                Node<E> right = node.right;
+                if (left != null) {
+                    level.add(left);
+                }
+                if (right != null) {
+                    level.add(right);
+                }
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Clears all elements from the tree. The tree will be empty after this
+     * operation, apart from elements added by other threads meanwhile. Every
+     * detached node is marked as removed, so an add that was still descending
+     * through the old nodes starts again in the new tree instead of being
+     * lost.
+     */
+    public void clear() {
+        removalLock.lock();
+        try {
+            Node<E> current = root;
+            root = null;
+            ArrayDeque<Node<E>> pending = new ArrayDeque<>();
+            if (current != null) {
+                pending.push(current);
+            }
+            while (!pending.isEmpty()) {
+                Node<E> node = pending.pop();
+                Node<E> left;
+                Node<E> right;
+                synchronized (node) {
+                    node.removed = true;
+                    left = node.left;
+                    right = node.right;
+                }
+                if (left != null) {
+                    pending.push(left);
+                }
+                if (right != null) {
+                    pending.push(right);
+                }
+                size.decrement();
+            }
+        } finally {
+            removalLock.unlock();
+        }
+    }
+
+    /**
+     * Checks if the tree contains the specified entry without taking any lock.
+     *
+     * @param entry the element to search for
+     * @return true if the element is found, false otherwise
+     * @throws NullPointerException if the entry is null
+     */
+    public boolean contains(E entry) throws NullPointerException {
+        return find(entry) != null;
+    }
+
+    /**
+     * Searches for a specific entry in the tree without taking any lock.
+     *
+     * @param entry the element to search for
+     * @return a node holding the element found, or null if not found
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> search(E entry) throws NullPointerException {
+        Node<E> node = find(entry);
+        return node == null ? null : new BSTreeNode<>(node.element);
+    }
+
+    /**
+     * Walks the tree looking for the node that holds the given entry.
+     *
+     * @param entry the element to search for
+     * @return the node holding the element, or null if not found
+     * @throws NullPointerException if the entry is null
+     */
+    private Node<E> find(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        Node<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.element);
+            if (compareResult == 0) {
+                return node;
+            }
+            node = compareResult < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Adds a new entry to the tree. The descent takes no lock, and only the
+     * node the new leaf is attached to is locked.
+     *
+     * @param newEntry the element to be added
+     * @return true if the element was successfully added, false if it already
+     * exists
+     * @throws NullPointerException if the new entry is null
+     */
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) {
+            throw new NullPointerException("Cannot add null entry to the tree");
+        }
+        return insert(newEntry) == null;
+    }
+
+    /**
+     * Adds the entry if no equal element is stored, otherwise replaces the
+     * stored element with the result of the remapping function in a single
+     * descent. The function is applied exactly once, while holding the lock
+     * of the node that stores the element, so merges into the same node run
+     * one after another and the function may have side effects. If that node
+     * is removed before it is locked, the entry is merged again from the root.
+     *
+     * @param entry the element to be added or combined
+     * @param remapping the function given the stored element and the entry
+     * @return the element stored in the tree after the call
+     * @throws NullPointerException if the entry or the function is null, or if
+     * the function returns null
+     * @throws IllegalArgumentException if the function returns an element that
+     * is not equal to the stored one
+     */
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E> remapping) throws NullPointerException, IllegalArgumentException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException("Cannot merge a null entry or function");
+        }
+        Node<E> existing;
+        while ((existing = insert(entry)) != null) {
+            synchronized (existing) {
+                if (!existing.removed) {
+                    E current = existing.element;
+                    E merged = remapping.apply(current, entry);
+                    if (merged == null) {
+                        throw new NullPointerException("Merge function returned null");
+                    }
+                    if (merged.compareTo(current) != 0) {
+                        throw new IllegalArgumentException("Merge function changed the key");
+                    }
+                    existing.element = merged;
+                    return merged;
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Attaches a new leaf for the entry. The empty child link is checked
+     * again under the lock of its node, and the descent starts again from the
+     * root if that node has been removed meanwhile.
+     *
+     * @param newEntry the element to be added
+     * @return the node already holding an equal element, or null if the entry
+     * was added
+     */
+    private Node<E> insert(E newEntry) {
+        Node<E> leaf = new Node<>(newEntry);
+        retry:
+        while (true) {
+            Node<E> node = root;
+            if (node == null) {
+                if (ROOT.compareAndSet(this, null, leaf)) {
+                    size.increment();
+                    return null;
+                }
+                continue;
+            }
+            while (true) {
+                int compareResult = newEntry.compareTo(node.element);
+                if (compareResult == 0) {
+                    return node;
+                }
+                Node<E> next = compareResult < 0 ? node.left : node.right;
+                if (next == null) {
+                    synchronized (node) {
+                        if (node.removed) {
+                            continue retry;
+                        }
+                        next = compareResult < 0 ? node.left : node.right;
+                        if (next == null) {
+                            if (compareResult < 0) {
+                                node.left = leaf;
+                            } else {
+                                node.right = leaf;
+                            }
+                            size.increment();
+                            return null;
+                        }
+                    }
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Removes the smallest element in the tree.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public BSTreeNode<E> removeMin() {
+        removalLock.lock();
+        try {
+            Node<E> parent = null;
+            Node<E> node = root;
+            while (node != null) {
+                Node<E> left = node.left;
+                if (left != null) {
+                    parent = node;
+                    node = left;
+                    continue;
+                }
+                synchronized (node) {
+                    // A leaf may have been attached on the left before the lock was taken
+                    if (node.left == null) {
+                        node.removed = true;
+                        if (parent == null) {
+                            root = node.right;
+                        } else {
+                            parent.left = node.right;
+                        }
+                        size.decrement();
+                        return new BSTreeNode<>(node.element);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            removalLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the largest element in the tree.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public BSTreeNode<E> removeMax() {
+        removalLock.lock();
+        try {
+            Node<E> parent = null;
+            Node<E> node = root;
+            while (node != null) {
+                Node<E> right = node.right;
+                if (right != null) {
+                    parent = node;
+                    node = right;
+                    continue;
+                }
+                synchronized (node) {
+                    // A leaf may have been attached on the right before the lock was taken
+                    if (node.right == null) {
+                        node.removed = true;
+                        if (parent == null) {
+                            root = node.left;
+                        } else {
+                            parent.right = node.left;
+                        }
+                        size.decrement();
+                        return new BSTreeNode<>(node.element);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            removalLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the elements smaller than the given entry by walking the tree in
+     * order, which takes time linear in the rank.
+     *
+     * @param entry the element to rank
+     * @return the number of elements in the tree smaller than the entry
+     * @throws NullPointerException if the entry is null
+     */
+    public int rank(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot rank a null entry");
+        }
+        int rank = 0;
+        Iterator<E> it = inorderIterator();
+        while (it.hasNext() && it.next().compareTo(entry) < 0) {
+            rank++;
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieves the element at the given position of the inorder traversal by
+     * walking the tree in order, which takes time linear in the index.
+     *
+     * @param index the zero based position of the element in the natural order
+     * @return a node holding the element at the given position
+     * @throws IndexOutOfBoundsException if the index is negative or not less
+     * than the size of the tree
+     */
+    public BSTreeNode<E> select(int index) throws IndexOutOfBoundsException {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Iterator<E> it = inorderIterator();
+        for (int i = 0; it.hasNext(); i++) {
+            E element = it.next();
+            if (i == index) {
+                return new BSTreeNode<>(element);
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    /**
+     * Returns a weakly consistent iterator for traversing the tree in inorder.
+     *
+     * @return an iterator for inorder traversal
+     */
+    public Iterator<E> inorderIterator() {
+        return new InorderIterator(root);
+    }
+
+    /**
+     * Returns a weakly consistent iterator for traversing the tree in preorder.
+     *
+     * @return an iterator for preorder traversal
+     */
+    public Iterator<E> preorderIterator() {
+        return new PreorderIterator(root);
+    }
+
+    /**
+     * Returns a weakly consistent iterator for traversing the tree in
+     * postorder.
+     *
+     * @return an iterator for postorder traversal
+     */
+    public Iterator<E> postorderIterator() {
+        return new PostorderIterator(root);
+    }
+
+    /**
+     * Writes the number of elements followed by the elements in inorder. The
+     * elements are first collected by one inorder walk, so the count written
+     * always matches the elements even while other threads add to the tree.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ArrayList<E> elements = new ArrayList<>(size());
+        Iterator<E> it = inorderIterator();
+        while (it.hasNext()) {
+            elements.add(it.next());
+        }
+        out.defaultWriteObject();
+        out.writeInt(elements.size());
+        for (E element : elements) {
+            out.writeObject(element);
+        }
+    }
+
+    /**
+     * Reads the elements written by writeObject and rebuilds the tree
+     * perfectly balanced from them.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if an element class cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        size = new LongAdder();
+        removalLock = new ReentrantLock();
+        int count = in.readInt();
+        ArrayList<E> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add((E) in.readObject());
+        }
+        root = buildBalanced(elements, 0, count);
+        size.add(count);
+    }
+
+    /**
+     * Builds a perfectly balanced subtree from a sorted slice of elements.
+     *
+     * @param elements the elements in ascending order
+     * @param from the index of the first element of the slice, inclusive
+     * @param to the index of the last element of the slice, exclusive
+     * @return the root of the subtree, or null if the slice is empty
+     */
+    private Node<E> buildBalanced(ArrayList<E> elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node<E> node = new Node<>(elements.get(middle));
+        node.left = buildBalanced(elements, from, middle);
+        node.right = buildBalanced(elements, middle + 1, to);
+        return node;
+    }
+
+    /**
+     * Iterator for traversing the tree in inorder with an explicit stack.
+     */
+    private class InorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+
+        /**
+         * Constructs an InorderIterator by descending to the smallest element.
+         *
+         * @param root the root node of the tree
+         */
+        public InorderIterator(Node<E> root) {
+            pushLeftSpine(root);
+        }
+
+        /**
+         * Pushes the given node and all of its left descendants.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushLeftSpine(Node<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        /**
+         * Checks whether there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            Node<E> node = stack.pop();
+            pushLeftSpine(node.right);
+            return node.element;
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in preorder with an explicit stack.
+     */
+    private class PreorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+
+        /**
+         * Constructs a new PreorderIterator for the tree.
+         *
+         * @param root the root node of the tree
+         */
+        public PreorderIterator(Node<E> root) {
+            if (root != null) {
+                stack.push(root);
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            Node<E> node = stack.pop();
+            Node<E> left = node.left;
+            Node<E> right = node.right;
+            if (right != null) {
+                stack.push(right);
+            }
+            if (left != null) {
+                stack.push(left);
+            }
+            return node.element;
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in postorder. Each stack entry records
+     * the right child that was read when the node was pushed, so the walk stays
+     * consistent even if that link changes before it is visited.
+     */
+    private class PostorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+        private final ArrayDeque<Node<E>> pendingRight = new ArrayDeque<>();
+
+        /**
+         * Constructs a new PostorderIterator for the tree.
+         *
+         * @param root the root node of the tree
+         */
+        public PostorderIterator(Node<E> root) {
+            pushFirstLeaf(root);
+        }
+
+        /**
+         * Pushes the path from the given node down to the first node visited
+         * in postorder.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushFirstLeaf(Node<E> node) {
+            while (node != null) {
+                Node<E> left = node.left;
+                Node<E> right = node.right;
+                stack.push(node);
+                if (left != null) {
+                    pendingRight.push(right == null ? node : right);
+                    node = left;
+                } else {
+                    pendingRight.push(node);
+                    node = right;
+                }
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            Node<E> node = stack.pop();
+            pendingRight.pop();
+            if (!stack.isEmpty()) {
+                Node<E> parent = stack.peek();
+                Node<E> right = pendingRight.peek();
+                if (right != parent) {
+                    // The parent's right subtree has not been walked yet
+                    pendingRight.pop();
+                    pendingRight.push(parent);
+                    pushFirstLeaf(right);
+                }
+            }
+            return node.element;
+        }
+    }
+}
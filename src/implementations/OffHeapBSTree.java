@@ -0,0 +1,1049 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import utilities.BSTreeADT;
+import utilities.ElementCodec;
+import utilities.Iterator;
+
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Represents an AVL balanced binary search tree whose nodes are stored in
+ * native memory. Every node is a record in a direct ByteBuffer holding the
+ * addresses of its children, its height, the size of its subtree and the
+ * element encoded by an ElementCodec. The garbage collector only sees the
+ * tree object and its list of memory chunks, however many elements the tree
+ * holds. Elements are decoded into new objects whenever they are returned.
+ *
+ * Records are appended to the current chunk. A removed record, or the old
+ * record of an element whose encoding grew in merge, stays in its chunk as
+ * garbage until compact() copies the live records into fresh chunks. The tree
+ * compacts itself once its garbage fills at least a chunk and outweighs its
+ * live records, so the copying costs a constant amount per byte of garbage,
+ * and compact() only needs to be called to give the garbage back sooner.
+ *
+ * The chunks are direct ByteBuffers, and Java 17 has no way to free their
+ * native memory on demand. compact(), clear() and close() drop the tree's
+ * references to its chunks, and each chunk's native memory is released by
+ * its cleaner once the garbage collector finds the buffer unreachable. The
+ * total is bounded by -XX:MaxDirectMemorySize, and reaching that bound makes
+ * the JVM collect garbage before it fails an allocation. A closed tree cannot
+ * be used again.
+ *
+ * Because the tree keeps encoded copies, changing an element returned by the
+ * tree does not change the stored element. The BSTreeNode values returned by
+ * getRoot, search, select, removeMin and removeMax are detached copies holding
+ * only a decoded element.
+ *
+ * @param <E> The type of elements stored in the tree, which must implement Comparable.
+ */
+public class OffHeapBSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable, AutoCloseable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The chunk size used by the single-argument constructor.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private static final long NIL = -1L;    // Address used as the null child
+    private static final int MAX_HEIGHT = 64;
+
+    // Layout of a node record
+    private static final int LEFT = 0;      // long address of the left child
+    private static final int RIGHT = 8;     // long address of the right child
+    private static final int HEIGHT = 16;   // int height of the subtree
+    private static final int SIZE = 20;     // int number of elements in the subtree
+    private static final int PAYLOAD = 24;  // encoded element
+
+    private final ElementCodec<E> codec;
+    private final int chunkSize;
+    private transient ArrayList<ByteBuffer> chunks;
+    private transient int chunkPosition; // Next free offset in the last chunk
+    private transient long root;
+    private transient long usedBytes;
+    private transient long liveBytes;
+    private transient boolean closed;
+    private transient long[] path; // Reusable root-to-leaf path used while rebalancing
+
+    /**
+     * Constructs an empty tree that stores its nodes in chunks of the default
+     * size.
+     *
+     * @param codec the codec used to store the elements
+     * @throws NullPointerException if the codec is null
+     */
+    public OffHeapBSTree(ElementCodec<E> codec) throws NullPointerException {
+        this(codec, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an empty tree.
+     *
+     * @param codec the codec used to store the elements
+     * @param chunkSize the number of bytes of native memory reserved at a time
+     * @throws NullPointerException if the codec is null
+     * @throws IllegalArgumentException if the chunk size is too small to hold
+     * a node
+     */
+    public OffHeapBSTree(ElementCodec<E> codec, int chunkSize) throws NullPointerException, IllegalArgumentException {
+        if (codec == null) {
+            throw new NullPointerException("Codec cannot be null");
+        }
+        if (chunkSize < 2 * PAYLOAD) {
+            throw new IllegalArgumentException("Chunk size is too small: " + chunkSize);
+        }
+        this.codec = codec;
+        this.chunkSize = chunkSize;
+        reset();
+    }
+
+    /**
+     * Retrieves a detached copy of the root node of the tree.
+     *
+     * @return a node holding the decoded element at the root
+     * @throws NullPointerException if the tree is empty
+     */
+    public BSTreeNode<E> getRoot() throws NullPointerException {
+        checkOpen();
+        if (root == NIL) {
+            throw new NullPointerException("Tree is empty");
+        }
+        return new BSTreeNode<>(element(root));
+    }
+
+    /**
+     * Returns the height of the tree in constant time.
+     *
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        checkOpen();
+        return heightOf(root);
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        checkOpen();
+        return sizeOf(root);
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        checkOpen();
+        return root == NIL;
+    }
+
+    /**
+     * Clears all elements from the tree and drops its chunks, whose native
+     * memory is released once they are garbage collected.
+     */
+    public void clear() {
+        checkOpen();
+        reset();
+    }
+
+    /**
+     * Returns the number of bytes of native memory held by the tree's
+     * records, including the records of removed elements.
+     *
+     * @return the number of bytes in use
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Returns the number of bytes held by the records of the elements still in
+     * the tree.
+     *
+     * @return the number of bytes held by live records
+     */
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Copies the live records into fresh chunks, building the tree perfectly
+     * balanced, and drops the old chunks together with the space of every
+     * removed record. The native memory of the old chunks is released once
+     * they are garbage collected.
+     */
+    public void compact() {
+        checkOpen();
+        ArrayList<ByteBuffer> oldChunks = chunks;
+        long oldRoot = root;
+        int count = sizeOf(oldRoot);
+        long[] addresses = new long[count];
+        int index = 0;
+        long[] stack = new long[heightOf(oldRoot) + 1];
+        int top = 0;
+        long node = oldRoot;
+        while (node != NIL || top > 0) {
+            while (node != NIL) {
+                stack[top++] = node;
+                node = getLeft(node);
+            }
+            node = stack[--top];
+            addresses[index++] = node;
+            node = getRight(node);
+        }
+        reset();
+        root = copyBalanced(oldChunks, addresses, 0, count);
+    }
+
+    /**
+     * Drops the chunks of the tree, whose native memory is released once they
+     * are garbage collected. The tree cannot be used after it has been closed.
+     */
+    @Override
+    public void close() {
+        chunks = null;
+        root = NIL;
+        usedBytes = 0;
+        liveBytes = 0;
+        closed = true;
+    }
+
+    /**
+     * Checks if the tree contains the specified entry.
+     *
+     * @param entry the element to search for
+     * @return true if the element is found, false otherwise
+     * @throws NullPointerException if the entry is null
+     */
+    public boolean contains(E entry) throws NullPointerException {
+        return find(entry) != NIL;
+    }
+
+    /**
+     * Searches for a specific entry, comparing it against the encoded elements
+     * without decoding them.
+     *
+     * @param entry the element to search for
+     * @return a node holding the decoded element, or null if not found
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> search(E entry) throws NullPointerException {
+        long node = find(entry);
+        return node == NIL ? null : new BSTreeNode<>(element(node));
+    }
+
+    /**
+     * Walks the tree looking for the record that holds the given entry.
+     *
+     * @param entry the element to search for
+     * @return the address of the record, or NIL if not found
+     * @throws NullPointerException if the entry is null
+     */
+    private long find(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        checkOpen();
+        long node = root;
+        while (node != NIL) {
+            int compareResult = compare(entry, node);
+            if (compareResult == 0) {
+                return node;
+            }
+            node = compareResult < 0 ? getLeft(node) : getRight(node);
+        }
+        return NIL;
+    }
+
+    /**
+     * Adds a new entry to the tree by encoding it into a new record.
+     *
+     * @param newEntry the element to be added
+     * @return true if the element was successfully added, false if it already
+     * exists
+     * @throws NullPointerException if the new entry is null
+     */
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) {
+            throw new NullPointerException("Cannot add null entry to the tree");
+        }
+        checkOpen();
+        return insert(newEntry) < 0;
+    }
+
+    /**
+     * Adds the entry if no equal element is stored, otherwise replaces the
+     * stored element with the result of the remapping function in a single
+     * descent. The result is written over the old record when its encoding
+     * has the same length, and into a new record that takes the old one's
+     * place otherwise.
+     *
+     * @param entry the element to be added or combined
+     * @param remapping the function given a decoded copy of the stored
+     * element and the entry
+     * @return the element stored in the tree after the call
+     * @throws NullPointerException if the entry or the function is null, or if
+     * the function returns null
+     * @throws IllegalArgumentException if the function returns an element that
+     * is not equal to the stored one
+     */
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E> remapping) throws NullPointerException, IllegalArgumentException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException("Cannot merge a null entry or function");
+        }
+        checkOpen();
+        int depth = insert(entry);
+        if (depth < 0) {
+            return entry;
+        }
+        long node = path[depth];
+        ByteBuffer view = chunk(node).duplicate();
+        view.position(offset(node) + PAYLOAD);
+        E existing = codec.decode(view);
+        int oldLength = view.position() - offset(node);
+        E merged = remapping.apply(existing, entry);
+        if (merged == null) {
+            throw new NullPointerException("Merge function returned null");
+        }
+        if (merged.compareTo(existing) != 0) {
+            throw new IllegalArgumentException("Merge function changed the key");
+        }
+        if (PAYLOAD + codec.encodedSize(merged) == oldLength) {
+            view.position(offset(node) + PAYLOAD);
+            codec.encode(merged, view);
+            return merged;
+        }
+        long moved = allocate(merged);
+        setLeft(moved, getLeft(node));
+        setRight(moved, getRight(node));
+        updateNode(moved);
+        if (depth == 0) {
+            root = moved;
+        } else if (getLeft(path[depth - 1]) == node) {
+            setLeft(path[depth - 1], moved);
+        } else {
+            setRight(path[depth - 1], moved);
+        }
+        liveBytes -= oldLength;
+        compactIfWasteful();
+        return merged;
+    }
+
+    /**
+     * Encodes the entry into a new leaf record where the search for it ends
+     * and rebalances the path back to the root, unless an equal element is
+     * found.
+     *
+     * @param newEntry the element to be added
+     * @return -1 if the entry was added, otherwise the depth of the record
+     * holding an equal element, which is left in the path with its ancestors
+     * above it
+     */
+    private int insert(E newEntry) {
+        if (root == NIL) {
+            root = allocate(newEntry);
+            return -1;
+        }
+        int depth = 0;
+        long node = root;
+        while (true) {
+            path[depth] = node;
+            int compareResult = compare(newEntry, node);
+            if (compareResult == 0) {
+                return depth;
+            }
+            depth++;
+            long next = compareResult < 0 ? getLeft(node) : getRight(node);
+            if (next == NIL) {
+                long leaf = allocate(newEntry);
+                if (compareResult < 0) {
+                    setLeft(node, leaf);
+                } else {
+                    setRight(node, leaf);
+                }
+                repairPath(depth);
+                return -1;
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Removes the smallest element in the tree.
+     *
+     * @return a node holding the decoded removed element, or null if the tree
+     * is empty
+     */
+    public BSTreeNode<E> removeMin() {
+        checkOpen();
+        if (root == NIL) {
+            return null;
+        }
+        int depth = 0;
+        long node = root;
+        while (getLeft(node) != NIL) {
+            path[depth++] = node;
+            node = getLeft(node);
+        }
+        if (depth == 0) {
+            root = getRight(node);
+        } else {
+            setLeft(path[depth - 1], getRight(node));
+        }
+        repairPath(depth);
+        E element = release(node);
+        compactIfWasteful();
+        return new BSTreeNode<>(element);
+    }
+
+    /**
+     * Removes the largest element in the tree.
+     *
+     * @return a node holding the decoded removed element, or null if the tree
+     * is empty
+     */
+    public BSTreeNode<E> removeMax() {
+        checkOpen();
+        if (root == NIL) {
+            return null;
+        }
+        int depth = 0;
+        long node = root;
+        while (getRight(node) != NIL) {
+            path[depth++] = node;
+            node = getRight(node);
+        }
+        if (depth == 0) {
+            root = getLeft(node);
+        } else {
+            setRight(path[depth - 1], getLeft(node));
+        }
+        repairPath(depth);
+        E element = release(node);
+        compactIfWasteful();
+        return new BSTreeNode<>(element);
+    }
+
+    /**
+     * Counts the elements smaller than the given entry in a single descent.
+     *
+     * @param entry the element to rank
+     * @return the number of elements in the tree smaller than the entry
+     * @throws NullPointerException if the entry is null
+     */
+    public int rank(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot rank a null entry");
+        }
+        checkOpen();
+        int rank = 0;
+        long node = root;
+        while (node != NIL) {
+            int compareResult = compare(entry, node);
+            if (compareResult < 0) {
+                node = getLeft(node);
+            } else {
+                rank += sizeOf(getLeft(node));
+                if (compareResult == 0) {
+                    return rank;
+                }
+                rank++;
+                node = getRight(node);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieves the element at the given position of the inorder traversal in
+     * a single descent.
+     *
+     * @param index the zero based position of the element in the natural order
+     * @return a node holding the decoded element at the given position
+     * @throws IndexOutOfBoundsException if the index is negative or not less
+     * than the size of the tree
+     */
+    public BSTreeNode<E> select(int index) throws IndexOutOfBoundsException {
+        checkOpen();
+        if (index < 0 || index >= sizeOf(root)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + sizeOf(root));
+        }
+        long node = root;
+        while (true) {
+            int leftSize = sizeOf(getLeft(node));
+            if (index < leftSize) {
+                node = getLeft(node);
+            } else if (index == leftSize) {
+                return new BSTreeNode<>(element(node));
+            } else {
+                index -= leftSize + 1;
+                node = getRight(node);
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator that decodes the elements in inorder.
+     *
+     * @return an iterator for inorder traversal
+     */
+    public Iterator<E> inorderIterator() {
+        checkOpen();
+        return new InorderIterator();
+    }
+
+    /**
+     * Returns an iterator that decodes the elements in preorder.
+     *
+     * @return an iterator for preorder traversal
+     */
+    public Iterator<E> preorderIterator() {
+        checkOpen();
+        return new PreorderIterator();
+    }
+
+    /**
+     * Returns an iterator that decodes the elements in postorder.
+     *
+     * @return an iterator for postorder traversal
+     */
+    public Iterator<E> postorderIterator() {
+        checkOpen();
+        return new PostorderIterator();
+    }
+
+    /**
+     * Drops every chunk and starts over with an empty tree.
+     */
+    private void reset() {
+        chunks = new ArrayList<>();
+        chunkPosition = chunkSize;
+        root = NIL;
+        usedBytes = 0;
+        liveBytes = 0;
+        if (path == null) {
+            path = new long[MAX_HEIGHT];
+        }
+    }
+
+    /**
+     * Fails if the tree has been closed.
+     *
+     * @throws IllegalStateException if the tree has been closed
+     */
+    private void checkOpen() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("Tree has been closed");
+        }
+    }
+
+    /**
+     * Returns the chunk holding the record at the given address.
+     *
+     * @param node the address of the record
+     * @return the chunk holding the record
+     */
+    private ByteBuffer chunk(long node) {
+        return chunks.get((int) (node >>> 32));
+    }
+
+    /**
+     * Returns the offset of the record at the given address within its chunk.
+     *
+     * @param node the address of the record
+     * @return the offset of the record
+     */
+    private static int offset(long node) {
+        return (int) node;
+    }
+
+    /**
+     * Returns the address of the left child of the given record.
+     *
+     * @param node the address of the record
+     * @return the address of the left child, or NIL if there is none
+     */
+    private long getLeft(long node) {
+        return chunk(node).getLong(offset(node) + LEFT);
+    }
+
+    /**
+     * Returns the address of the right child of the given record.
+     *
+     * @param node the address of the record
+     * @return the address of the right child, or NIL if there is none
+     */
+    private long getRight(long node) {
+        return chunk(node).getLong(offset(node) + RIGHT);
+    }
+
+    /**
+     * Links a left child to the given record.
+     *
+     * @param node the address of the record
+     * @param child the address of the new left child, may be NIL
+     */
+    private void setLeft(long node, long child) {
+        chunk(node).putLong(offset(node) + LEFT, child);
+    }
+
+    /**
+     * Links a right child to the given record.
+     *
+     * @param node the address of the record
+     * @param child the address of the new right child, may be NIL
+     */
+    private void setRight(long node, long child) {
+        chunk(node).putLong(offset(node) + RIGHT, child);
+    }
+
+    /**
+     * Returns the height of the given subtree, treating NIL as empty.
+     *
+     * @param node the address of the record, may be NIL
+     * @return the height of the subtree
+     */
+    private int heightOf(long node) {
+        return node == NIL ? 0 : chunk(node).getInt(offset(node) + HEIGHT);
+    }
+
+    /**
+     * Returns the size of the given subtree, treating NIL as empty.
+     *
+     * @param node the address of the record, may be NIL
+     * @return the number of elements in the subtree
+     */
+    private int sizeOf(long node) {
+        return node == NIL ? 0 : chunk(node).getInt(offset(node) + SIZE);
+    }
+
+    /**
+     * Compares an entry with the element stored in a record.
+     *
+     * @param entry the element to compare
+     * @param node the address of the record
+     * @return the result of comparing the entry with the stored element
+     */
+    private int compare(E entry, long node) {
+        return codec.compare(entry, chunk(node), offset(node) + PAYLOAD);
+    }
+
+    /**
+     * Decodes the element stored in a record.
+     *
+     * @param node the address of the record
+     * @return a new copy of the stored element
+     */
+    private E element(long node) {
+        ByteBuffer view = chunk(node).duplicate();
+        view.position(offset(node) + PAYLOAD);
+        return codec.decode(view);
+    }
+
+    /**
+     * Reserves space for a record of the given length, starting a new chunk
+     * when the current one is full. A record larger than a chunk gets a chunk
+     * of its own.
+     *
+     * @param length the length of the record in bytes
+     * @return the address of the reserved space
+     */
+    private long reserve(int length) {
+        if (chunks.isEmpty() || chunkPosition + length > currentChunkCapacity()) {
+            chunks.add(ByteBuffer.allocateDirect(Math.max(chunkSize, length)));
+            chunkPosition = 0;
+        }
+        long node = ((long) (chunks.size() - 1) << 32) | chunkPosition;
+        chunkPosition += length;
+        usedBytes += length;
+        liveBytes += length;
+        return node;
+    }
+
+    /**
+     * Returns the capacity of the chunk currently being filled.
+     *
+     * @return the capacity of the last chunk, or 0 if there is none
+     */
+    private int currentChunkCapacity() {
+        return chunks.isEmpty() ? 0 : chunks.get(chunks.size() - 1).capacity();
+    }
+
+    /**
+     * Encodes an element into a new leaf record.
+     *
+     * @param element the element to store
+     * @return the address of the new record
+     */
+    private long allocate(E element) {
+        int length = PAYLOAD + codec.encodedSize(element);
+        long node = reserve(length);
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        chunk.putLong(offset + LEFT, NIL);
+        chunk.putLong(offset + RIGHT, NIL);
+        chunk.putInt(offset + HEIGHT, 1);
+        chunk.putInt(offset + SIZE, 1);
+        ByteBuffer view = chunk.duplicate();
+        view.position(offset + PAYLOAD);
+        codec.encode(element, view);
+        return node;
+    }
+
+    /**
+     * Decodes the element of an unlinked record and accounts for its space
+     * as garbage until the next compaction.
+     *
+     * @param node the address of the unlinked record
+     * @return the element the record held
+     */
+    private E release(long node) {
+        ByteBuffer view = chunk(node).duplicate();
+        view.position(offset(node) + PAYLOAD);
+        E element = codec.decode(view);
+        liveBytes -= view.position() - offset(node);
+        return element;
+    }
+
+    /**
+     * Compacts the tree once its garbage fills at least a chunk and outweighs
+     * its live records. Every compaction at least halves the memory in use,
+     * so its cost is paid for by the garbage made since the last one.
+     */
+    private void compactIfWasteful() {
+        long garbage = usedBytes - liveBytes;
+        if (garbage >= chunkSize && garbage > liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Recursively copies a sorted slice of records from the old chunks into
+     * the current ones as a perfectly balanced subtree.
+     *
+     * @param oldChunks the chunks holding the records to copy
+     * @param addresses the addresses of the records in ascending order
+     * @param from the index of the first record of the slice, inclusive
+     * @param to the index of the last record of the slice, exclusive
+     * @return the address of the new subtree root, or NIL if the slice is empty
+     */
+    private long copyBalanced(ArrayList<ByteBuffer> oldChunks, long[] addresses, int from, int to) {
+        if (from >= to) {
+            return NIL;
+        }
+        int middle = (from + to) >>> 1;
+        long left = copyBalanced(oldChunks, addresses, from, middle);
+        ByteBuffer source = oldChunks.get((int) (addresses[middle] >>> 32)).duplicate();
+        source.position(offset(addresses[middle]) + PAYLOAD);
+        E element = codec.decode(source);
+        long node = allocate(element);
+        long right = copyBalanced(oldChunks, addresses, middle + 1, to);
+        setLeft(node, left);
+        setRight(node, right);
+        updateNode(node);
+        return node;
+    }
+
+    /**
+     * Recomputes the height and size of a record from its children.
+     *
+     * @param node the address of the record
+     */
+    private void updateNode(long node) {
+        long left = getLeft(node);
+        long right = getRight(node);
+        ByteBuffer chunk = chunk(node);
+        chunk.putInt(offset(node) + HEIGHT, 1 + Math.max(heightOf(left), heightOf(right)));
+        chunk.putInt(offset(node) + SIZE, 1 + sizeOf(left) + sizeOf(right));
+    }
+
+    /**
+     * Rotates the subtree rooted at the given record to the left.
+     *
+     * @param node the address of the root, which must have a right child
+     * @return the address of the new root of the subtree
+     */
+    private long rotateLeft(long node) {
+        long pivot = getRight(node);
+        setRight(node, getLeft(pivot));
+        setLeft(pivot, node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at the given record to the right.
+     *
+     * @param node the address of the root, which must have a left child
+     * @return the address of the new root of the subtree
+     */
+    private long rotateRight(long node) {
+        long pivot = getLeft(node);
+        setLeft(node, getRight(pivot));
+        setRight(pivot, node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Updates the bookkeeping of the given record and performs the single or
+     * double rotation needed to bring its balance factor back within one.
+     *
+     * @param node the address of a subtree root whose children are balanced
+     * @return the address of the new root of the subtree
+     */
+    private long rebalance(long node) {
+        updateNode(node);
+        long left = getLeft(node);
+        long right = getRight(node);
+        int balance = heightOf(left) - heightOf(right);
+        if (balance > 1) {
+            if (heightOf(getLeft(left)) < heightOf(getRight(left))) {
+                setLeft(node, rotateLeft(left));
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (heightOf(getRight(right)) < heightOf(getLeft(right))) {
+                setRight(node, rotateRight(right));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Rebalances every record on the recorded path from the deepest one back
+     * up to the root, relinking rotated subtrees into their parents.
+     *
+     * @param depth the number of recorded records
+     */
+    private void repairPath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            long node = path[i];
+            long subtree = rebalance(node);
+            if (subtree != node) {
+                if (i == 0) {
+                    root = subtree;
+                } else if (getLeft(path[i - 1]) == node) {
+                    setLeft(path[i - 1], subtree);
+                } else {
+                    setRight(path[i - 1], subtree);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the codec, the number of elements and then the elements in
+     * sorted order.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        checkOpen();
+        out.defaultWriteObject();
+        out.writeInt(size());
+        Iterator<E> it = inorderIterator();
+        while (it.hasNext()) {
+            out.writeObject(it.next());
+        }
+    }
+
+    /**
+     * Reads the elements written by writeObject into fresh native memory.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if an element class cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        reset();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            add((E) in.readObject());
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in inorder with a stack of record
+     * addresses bounded by the tree height.
+     */
+    private class InorderIterator implements Iterator<E> {
+
+        private final long[] stack = new long[heightOf(root) + 1];
+        private int top;
+
+        /**
+         * Constructs an InorderIterator by descending to the smallest element.
+         */
+        public InorderIterator() {
+            pushLeftSpine(root);
+        }
+
+        /**
+         * Pushes the given record and all of its left descendants.
+         *
+         * @param node the address to start from, may be NIL
+         */
+        private void pushLeftSpine(long node) {
+            while (node != NIL) {
+                stack[top++] = node;
+                node = getLeft(node);
+            }
+        }
+
+        /**
+         * Checks whether there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            long node = stack[--top];
+            pushLeftSpine(getRight(node));
+            return element(node);
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in preorder with a stack of record
+     * addresses bounded by the tree height.
+     */
+    private class PreorderIterator implements Iterator<E> {
+
+        private final long[] stack = new long[heightOf(root) + 1];
+        private int top;
+
+        /**
+         * Constructs a new PreorderIterator.
+         */
+        public PreorderIterator() {
+            if (root != NIL) {
+                stack[top++] = root;
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            long node = stack[--top];
+            if (getRight(node) != NIL) {
+                stack[top++] = getRight(node);
+            }
+            if (getLeft(node) != NIL) {
+                stack[top++] = getLeft(node);
+            }
+            return element(node);
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in postorder with a stack of record
+     * addresses bounded by the tree height.
+     */
+    private class PostorderIterator implements Iterator<E> {
+
+        private final long[] stack = new long[heightOf(root) + 1];
+        private int top;
+
+        /**
+         * Constructs a new PostorderIterator.
+         */
+        public PostorderIterator() {
+            pushFirstLeaf(root);
+        }
+
+        /**
+         * Pushes the path from the given record down to the first record
+         * visited in postorder.
+         *
+         * @param node the address to start from, may be NIL
+         */
+        private void pushFirstLeaf(long node) {
+            while (node != NIL) {
+                stack[top++] = node;
+                node = getLeft(node) != NIL ? getLeft(node) : getRight(node);
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            long node = stack[--top];
+            if (top > 0 && getLeft(stack[top - 1]) == node) {
+                pushFirstLeaf(getRight(stack[top - 1]));
+            }
+            return element(node);
+        }
+    }
+}
@@ -0,0 +1,644 @@
+package implementations;
+
+import java.io.Serializable;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Represents a persistent AVL balanced binary search tree. Nodes are never
+ * modified once created: add, removeMin and removeMax copy only the O(log n)
+ * nodes on the path they touch and share every other node with the previous
+ * version of the tree, then publish the new version by swapping the root.
+ *
+ * Taking a snapshot is therefore a constant time operation that simply
+ * captures the current root. A snapshot is an independent tree: it can be
+ * searched, iterated, serialized or even modified without locks and without
+ * ever observing later changes to the tree it was taken from. Changes are
+ * serialized among writers, while readers never block.
+ *
+ * Nodes are internal to this class, so the BSTreeNode values returned by
+ * getRoot, search, select, removeMin and removeMax are detached copies holding
+ * only the element.
+ *
+ * @param <E> The type of elements stored in the tree, which must implement Comparable.
+ */
+public class PersistentBSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private volatile Node<E> root;
+
+    /**
+     * An immutable tree node that also records the height and size of its
+     * subtree.
+     *
+     * @param <E> the type of element stored in the node
+     */
+    private static final class Node<E> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final E element;
+        private final Node<E> left;
+        private final Node<E> right;
+        private final int height;
+        private final int size;
+
+        /**
+         * Constructs a node with the given element and children.
+         *
+         * @param element the element to store
+         * @param left the left subtree, may be null
+         * @param right the right subtree, may be null
+         */
+        Node(E element, Node<E> left, Node<E> right) {
+            this.element = element;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(heightOf(left), heightOf(right));
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+        }
+    }
+
+    /**
+     * Constructs an empty persistent tree.
+     */
+    public PersistentBSTree() {
+        this(null);
+    }
+
+    /**
+     * Constructs a tree that shares the given version of the nodes.
+     *
+     * @param root the root of the version, may be null
+     */
+    private PersistentBSTree(Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Captures the current version of the tree in constant time.
+     *
+     * @return an independent tree holding the current contents
+     */
+    public PersistentBSTree<E> snapshot() {
+        return new PersistentBSTree<>(root);
+    }
+
+    /**
+     * Retrieves a detached copy of the root node of the tree.
+     *
+     * @return a node holding the element currently at the root
+     * @throws NullPointerException if the tree is empty
+     */
+    public BSTreeNode<E> getRoot() throws NullPointerException {
+        Node<E> current = root;
+        if (current == null) {
+            throw new NullPointerException("Tree is empty");
+        }
+        return new BSTreeNode<>(current.element);
+    }
+
+    /**
+     * Returns the height of the tree in constant time.
+     *
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Clears all elements from the tree. Snapshots taken earlier keep their
+     * contents.
+     */
+    public synchronized void clear() {
+        root = null;
+    }
+
+    /**
+     * Checks if the tree contains the specified entry.
+     *
+     * @param entry the element to search for
+     * @return true if the element is found, false otherwise
+     * @throws NullPointerException if the entry is null
+     */
+    public boolean contains(E entry) throws NullPointerException {
+        return search(entry) != null;
+    }
+
+    /**
+     * Searches for a specific entry in the current version of the tree.
+     *
+     * @param entry the element to search for
+     * @return a node holding the element found, or null if not found
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> search(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        Node<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.element);
+            if (compareResult == 0) {
+                return new BSTreeNode<>(node.element);
+            }
+            node = compareResult < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Adds a new entry by copying the path from the root to the new leaf.
+     *
+     * @param newEntry the element to be added
+     * @return true if the element was successfully added, false if it already
+     * exists
+     * @throws NullPointerException if the new entry is null
+     */
+    public synchronized boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) {
+            throw new NullPointerException("Cannot add null entry to the tree");
+        }
+        Node<E> current = root;
+        Node<E> updated = insert(current, newEntry);
+        root = updated;
+        return updated != current;
+    }
+
+    /**
+     * Adds the entry if no equal element is stored, otherwise replaces the
+     * stored element with the result of the remapping function, copying the
+     * path to the node in a single descent. Snapshots keep the old element, so
+     * the function should return a new element rather than change the stored
+     * one.
+     *
+     * @param entry the element to be added or combined
+     * @param remapping the function given the stored element and the entry
+     * @return the element stored in the tree after the call
+     * @throws NullPointerException if the entry or the function is null, or if
+     * the function returns null
+     * @throws IllegalArgumentException if the function returns an element that
+     * is not equal to the stored one
+     */
+    public synchronized E merge(E entry, BiFunction<? super E, ? super E, ? extends E> remapping) throws NullPointerException, IllegalArgumentException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException("Cannot merge a null entry or function");
+        }
+        E[] result = BSTree.newArray(1);
+        root = upsert(root, entry, remapping, result);
+        return result[0];
+    }
+
+    /**
+     * Removes the smallest element by copying the path along the left spine.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public synchronized BSTreeNode<E> removeMin() {
+        Node<E> current = root;
+        if (current == null) {
+            return null;
+        }
+        Node<E> min = current;
+        while (min.left != null) {
+            min = min.left;
+        }
+        root = withoutMin(current);
+        return new BSTreeNode<>(min.element);
+    }
+
+    /**
+     * Removes the largest element by copying the path along the right spine.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public synchronized BSTreeNode<E> removeMax() {
+        Node<E> current = root;
+        if (current == null) {
+            return null;
+        }
+        Node<E> max = current;
+        while (max.right != null) {
+            max = max.right;
+        }
+        root = withoutMax(current);
+        return new BSTreeNode<>(max.element);
+    }
+
+    /**
+     * Counts the elements smaller than the given entry in a single descent.
+     *
+     * @param entry the element to rank
+     * @return the number of elements in the tree smaller than the entry
+     * @throws NullPointerException if the entry is null
+     */
+    public int rank(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot rank a null entry");
+        }
+        int rank = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int compareResult = entry.compareTo(node.element);
+            if (compareResult < 0) {
+                node = node.left;
+            } else {
+                rank += sizeOf(node.left);
+                if (compareResult == 0) {
+                    return rank;
+                }
+                rank++;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieves the element at the given position of the inorder traversal in
+     * a single descent.
+     *
+     * @param index the zero based position of the element in the natural order
+     * @return a node holding the element at the given position
+     * @throws IndexOutOfBoundsException if the index is negative or not less
+     * than the size of the tree
+     */
+    public BSTreeNode<E> select(int index) throws IndexOutOfBoundsException {
+        Node<E> node = root;
+        if (index < 0 || index >= sizeOf(node)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + sizeOf(node));
+        }
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return new BSTreeNode<>(node.element);
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the version of the tree current at the time of
+     * the call, in inorder.
+     *
+     * @return an iterator for inorder traversal
+     */
+    public Iterator<E> inorderIterator() {
+        return new InorderIterator(root);
+    }
+
+    /**
+     * Returns an iterator over the version of the tree current at the time of
+     * the call, in preorder.
+     *
+     * @return an iterator for preorder traversal
+     */
+    public Iterator<E> preorderIterator() {
+        return new PreorderIterator(root);
+    }
+
+    /**
+     * Returns an iterator over the version of the tree current at the time of
+     * the call, in postorder.
+     *
+     * @return an iterator for postorder traversal
+     */
+    public Iterator<E> postorderIterator() {
+        return new PostorderIterator(root);
+    }
+
+    /**
+     * Returns the height of the given subtree, treating null as empty.
+     *
+     * @param node the node to inspect, may be null
+     * @return the height of the subtree
+     */
+    private static int heightOf(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Returns the size of the given subtree, treating null as empty.
+     *
+     * @param node the node to inspect, may be null
+     * @return the number of elements in the subtree
+     */
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Returns a new version of the subtree with the entry inserted.
+     *
+     * @param node the root of the subtree, may be null
+     * @param newEntry the element to be added
+     * @return the root of the new version, or the same node if the entry was
+     * already present
+     */
+    private Node<E> insert(Node<E> node, E newEntry) {
+        if (node == null) {
+            return new Node<>(newEntry, null, null);
+        }
+        int compareResult = newEntry.compareTo(node.element);
+        if (compareResult == 0) {
+            return node;
+        } else if (compareResult < 0) {
+            Node<E> left = insert(node.left, newEntry);
+            return left == node.left ? node : balance(node.element, left, node.right);
+        } else {
+            Node<E> right = insert(node.right, newEntry);
+            return right == node.right ? node : balance(node.element, node.left, right);
+        }
+    }
+
+    /**
+     * Returns a new version of the subtree with the entry inserted or merged
+     * into the equal element.
+     *
+     * @param node the root of the subtree, may be null
+     * @param entry the element to be added or combined
+     * @param remapping the function given the stored element and the entry
+     * @param result a single slot that receives the element kept in the tree
+     * @return the root of the new version
+     */
+    private Node<E> upsert(Node<E> node, E entry, BiFunction<? super E, ? super E, ? extends E> remapping, E[] result) {
+        if (node == null) {
+            result[0] = entry;
+            return new Node<>(entry, null, null);
+        }
+        int compareResult = entry.compareTo(node.element);
+        if (compareResult == 0) {
+            E merged = remapping.apply(node.element, entry);
+            if (merged == null) {
+                throw new NullPointerException("Merge function returned null");
+            }
+            if (merged.compareTo(node.element) != 0) {
+                throw new IllegalArgumentException("Merge function changed the key");
+            }
+            result[0] = merged;
+            return new Node<>(merged, node.left, node.right);
+        } else if (compareResult < 0) {
+            return balance(node.element, upsert(node.left, entry, remapping, result), node.right);
+        } else {
+            return balance(node.element, node.left, upsert(node.right, entry, remapping, result));
+        }
+    }
+
+    /**
+     * Returns a new version of the non-empty subtree without its smallest
+     * element.
+     *
+     * @param node the root of the subtree
+     * @return the root of the new version
+     */
+    private Node<E> withoutMin(Node<E> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.element, withoutMin(node.left), node.right);
+    }
+
+    /**
+     * Returns a new version of the non-empty subtree without its largest
+     * element.
+     *
+     * @param node the root of the subtree
+     * @return the root of the new version
+     */
+    private Node<E> withoutMax(Node<E> node) {
+        if (node.right == null) {
+            return node.left;
+        }
+        return balance(node.element, node.left, withoutMax(node.right));
+    }
+
+    /**
+     * Creates a node from an element and two balanced subtrees whose heights
+     * differ by at most two, rotating as needed to restore the AVL balance.
+     * Only the new nodes along the rotation are allocated.
+     *
+     * @param element the element of the new node
+     * @param left the left subtree, may be null
+     * @param right the right subtree, may be null
+     * @return the root of the balanced subtree
+     */
+    private Node<E> balance(E element, Node<E> left, Node<E> right) {
+        int difference = heightOf(left) - heightOf(right);
+        if (difference > 1) {
+            if (heightOf(left.left) >= heightOf(left.right)) {
+                return new Node<>(left.element, left.left, new Node<>(element, left.right, right));
+            }
+            Node<E> pivot = left.right;
+            return new Node<>(pivot.element,
+                    new Node<>(left.element, left.left, pivot.left),
+                    new Node<>(element, pivot.right, right));
+        }
+        if (difference < -1) {
+            if (heightOf(right.right) >= heightOf(right.left)) {
+                return new Node<>(right.element, new Node<>(element, left, right.left), right.right);
+            }
+            Node<E> pivot = right.left;
+            return new Node<>(pivot.element,
+                    new Node<>(element, left, pivot.left),
+                    new Node<>(right.element, pivot.right, right.right));
+        }
+        return new Node<>(element, left, right);
+    }
+
+    /**
+     * Iterator for traversing a version of the tree in inorder with an
+     * explicit stack.
+     */
+    private class InorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+
+        /**
+         * Constructs an InorderIterator by descending to the smallest element.
+         *
+         * @param root the root node of the version to iterate over
+         */
+        public InorderIterator(Node<E> root) {
+            pushLeftSpine(root);
+        }
+
+        /**
+         * Pushes the given node and all of its left descendants.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushLeftSpine(Node<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        /**
+         * Checks whether there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            Node<E> node = stack.pop();
+            pushLeftSpine(node.right);
+            return node.element;
+        }
+    }
+
+    /**
+     * Iterator for traversing a version of the tree in preorder with an
+     * explicit stack.
+     */
+    private class PreorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+
+        /**
+         * Constructs a new PreorderIterator.
+         *
+         * @param root the root node of the version to iterate over
+         */
+        public PreorderIterator(Node<E> root) {
+            if (root != null) {
+                stack.push(root);
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            Node<E> node = stack.pop();
+            if (node.right != null) {
+                stack.push(node.right);
+            }
+            if (node.left != null) {
+                stack.push(node.left);
+            }
+            return node.element;
+        }
+    }
+
+    /**
+     * Iterator for traversing a version of the tree in postorder with an
+     * explicit stack.
+     */
+    private class PostorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+
+        /**
+         * Constructs a new PostorderIterator.
+         *
+         * @param root the root node of the version to iterate over
+         */
+        public PostorderIterator(Node<E> root) {
+            pushFirstLeaf(root);
+        }
+
+        /**
+         * Pushes the path from the given node down to the first node visited
+         * in postorder.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushFirstLeaf(Node<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left != null ? node.left : node.right;
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            Node<E> node = stack.pop();
+            if (!stack.isEmpty() && stack.peek().left == node) {
+                pushFirstLeaf(stack.peek().right);
+            }
+            return node.element;
+        }
+    }
+}
@@ -0,0 +1,732 @@
+package implementations;
+
+import java.io.Serializable;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Represents an AVL balanced binary search tree whose nodes live in a pool of
+ * parallel primitive arrays instead of separate node objects. A node is an
+ * index into those arrays: its element, its left and right child indices, the
+ * size of its subtree and its height are all stored at that index. The arrays
+ * grow geometrically and slots freed by removals are reused, so adding an
+ * element allocates nothing once the pool has grown large enough.
+ *
+ * Each node costs about 17 bytes spread over dense arrays, instead of a
+ * BSTreeNode object with its header and reference fields, and the garbage
+ * collector only ever sees the handful of arrays behind the tree.
+ *
+ * Nodes are internal to this class, so the BSTreeNode values returned by
+ * getRoot, search, select, removeMin and removeMax are detached copies holding
+ * only the element.
+ *
+ * @param <E> The type of elements stored in the tree, which must implement Comparable.
+ */
+public class PooledBSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int NIL = -1; // Index used as the null child
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_HEIGHT = 64; // Far above the height of any AVL tree with an int size
+
+    private Object[] elements; // Element of each node
+    private int[] left;        // Index of the left child of each node, or of the next free slot
+    private int[] right;       // Index of the right child of each node
+    private int[] sizes;       // Number of elements in the subtree of each node
+    private byte[] heights;    // Height of the subtree of each node
+    private int root;
+    private int size;
+    private int used;          // Number of slots ever handed out
+    private int free;          // Head of the list of released slots
+    private transient int[] path; // Reusable root-to-leaf path used while rebalancing
+
+    /**
+     * Constructs an empty tree with the default initial capacity.
+     */
+    public PooledBSTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty tree whose pool can hold the given number of nodes
+     * before it needs to grow.
+     *
+     * @param initialCapacity the initial number of node slots
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public PooledBSTree(int initialCapacity) throws IllegalArgumentException {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + initialCapacity);
+        }
+        int capacity = Math.max(initialCapacity, 1);
+        elements = new Object[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        sizes = new int[capacity];
+        heights = new byte[capacity];
+        root = NIL;
+        free = NIL;
+    }
+
+    /**
+     * Retrieves a detached copy of the root node of the tree.
+     *
+     * @return a node holding the element at the root
+     * @throws NullPointerException if the tree is empty
+     */
+    public BSTreeNode<E> getRoot() throws NullPointerException {
+        if (root == NIL) {
+            throw new NullPointerException("Tree is empty");
+        }
+        return new BSTreeNode<>(element(root));
+    }
+
+    /**
+     * Returns the height of the tree in constant time.
+     *
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Clears all elements from the tree. The pool keeps its capacity.
+     */
+    public void clear() {
+        Arrays.fill(elements, 0, used, null);
+        root = NIL;
+        size = 0;
+        used = 0;
+        free = NIL;
+    }
+
+    /**
+     * Checks if the tree contains the specified entry.
+     *
+     * @param entry the element to search for
+     * @return true if the element is found, false otherwise
+     * @throws NullPointerException if the entry is null
+     */
+    public boolean contains(E entry) throws NullPointerException {
+        return find(entry) != NIL;
+    }
+
+    /**
+     * Searches for a specific entry in the tree.
+     *
+     * @param entry the element to search for
+     * @return a node holding the element found, or null if not found
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> search(E entry) throws NullPointerException {
+        int node = find(entry);
+        return node == NIL ? null : new BSTreeNode<>(element(node));
+    }
+
+    /**
+     * Walks the tree looking for the slot that holds the given entry.
+     *
+     * @param entry the element to search for
+     * @return the index of the node holding the element, or NIL if not found
+     * @throws NullPointerException if the entry is null
+     */
+    private int find(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        int node = root;
+        while (node != NIL) {
+            int compareResult = entry.compareTo(element(node));
+            if (compareResult == 0) {
+                return node;
+            }
+            node = compareResult < 0 ? left[node] : right[node];
+        }
+        return NIL;
+    }
+
+    /**
+     * Adds a new entry to the tree and rebalances the path back to the root.
+     *
+     * @param newEntry the element to be added
+     * @return true if the element was successfully added, false if it already
+     * exists
+     * @throws NullPointerException if the new entry is null
+     */
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) {
+            throw new NullPointerException("Cannot add null entry to the tree");
+        }
+        return insert(newEntry) == NIL;
+    }
+
+    /**
+     * Adds the entry if no equal element is stored, otherwise replaces the
+     * stored element with the result of the remapping function. The slot is
+     * found or allocated in a single descent.
+     *
+     * @param entry the element to be added or combined
+     * @param remapping the function given the stored element and the entry
+     * @return the element stored in the tree after the call
+     * @throws NullPointerException if the entry or the function is null, or if
+     * the function returns null
+     * @throws IllegalArgumentException if the function returns an element that
+     * is not equal to the stored one
+     */
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E> remapping) throws NullPointerException, IllegalArgumentException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException("Cannot merge a null entry or function");
+        }
+        int existing = insert(entry);
+        if (existing == NIL) {
+            return entry;
+        }
+        E merged = remapping.apply(element(existing), entry);
+        if (merged == null) {
+            throw new NullPointerException("Merge function returned null");
+        }
+        if (merged.compareTo(element(existing)) != 0) {
+            throw new IllegalArgumentException("Merge function changed the key");
+        }
+        elements[existing] = merged;
+        return merged;
+    }
+
+    /**
+     * Allocates a leaf for the entry where the search for it ends and
+     * rebalances the path back to the root, unless an equal element is found.
+     *
+     * @param newEntry the element to be added
+     * @return the slot already holding an equal element, or NIL if the entry
+     * was added
+     */
+    private int insert(E newEntry) {
+        if (root == NIL) {
+            root = allocate(newEntry);
+            size++;
+            return NIL;
+        }
+        int[] path = path();
+        int depth = 0;
+        int node = root;
+        while (true) {
+            int compareResult = newEntry.compareTo(element(node));
+            if (compareResult == 0) {
+                return node;
+            }
+            path[depth++] = node;
+            int next = compareResult < 0 ? left[node] : right[node];
+            if (next == NIL) {
+                int leaf = allocate(newEntry);
+                if (compareResult < 0) {
+                    left[node] = leaf;
+                } else {
+                    right[node] = leaf;
+                }
+                size++;
+                repairPath(depth);
+                return NIL;
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Removes the smallest element in the tree and releases its slot.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public BSTreeNode<E> removeMin() {
+        if (root == NIL) {
+            return null;
+        }
+        int[] path = path();
+        int depth = 0;
+        int node = root;
+        while (left[node] != NIL) {
+            path[depth++] = node;
+            node = left[node];
+        }
+        if (depth == 0) {
+            root = right[node];
+        } else {
+            left[path[depth - 1]] = right[node];
+        }
+        repairPath(depth);
+        return new BSTreeNode<>(release(node));
+    }
+
+    /**
+     * Removes the largest element in the tree and releases its slot.
+     *
+     * @return a node holding the removed element, or null if the tree is empty
+     */
+    public BSTreeNode<E> removeMax() {
+        if (root == NIL) {
+            return null;
+        }
+        int[] path = path();
+        int depth = 0;
+        int node = root;
+        while (right[node] != NIL) {
+            path[depth++] = node;
+            node = right[node];
+        }
+        if (depth == 0) {
+            root = left[node];
+        } else {
+            right[path[depth - 1]] = left[node];
+        }
+        repairPath(depth);
+        return new BSTreeNode<>(release(node));
+    }
+
+    /**
+     * Counts the elements smaller than the given entry in a single descent.
+     *
+     * @param entry the element to rank
+     * @return the number of elements in the tree smaller than the entry
+     * @throws NullPointerException if the entry is null
+     */
+    public int rank(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot rank a null entry");
+        }
+        int rank = 0;
+        int node = root;
+        while (node != NIL) {
+            int compareResult = entry.compareTo(element(node));
+            if (compareResult < 0) {
+                node = left[node];
+            } else {
+                rank += sizeOf(left[node]);
+                if (compareResult == 0) {
+                    return rank;
+                }
+                rank++;
+                node = right[node];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieves the element at the given position of the inorder traversal in
+     * a single descent.
+     *
+     * @param index the zero based position of the element in the natural order
+     * @return a node holding the element at the given position
+     * @throws IndexOutOfBoundsException if the index is negative or not less
+     * than the size of the tree
+     */
+    public BSTreeNode<E> select(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int node = root;
+        while (true) {
+            int leftSize = sizeOf(left[node]);
+            if (index < leftSize) {
+                node = left[node];
+            } else if (index == leftSize) {
+                return new BSTreeNode<>(element(node));
+            } else {
+                index -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator for traversing the tree in inorder.
+     *
+     * @return an iterator for inorder traversal
+     */
+    public Iterator<E> inorderIterator() {
+        return new InorderIterator();
+    }
+
+    /**
+     * Returns an iterator for traversing the tree in preorder.
+     *
+     * @return an iterator for preorder traversal
+     */
+    public Iterator<E> preorderIterator() {
+        return new PreorderIterator();
+    }
+
+    /**
+     * Returns an iterator for traversing the tree in postorder.
+     *
+     * @return an iterator for postorder traversal
+     */
+    public Iterator<E> postorderIterator() {
+        return new PostorderIterator();
+    }
+
+    /**
+     * Retrieves the element stored in the given slot.
+     *
+     * @param node the index of the node
+     * @return the element of the node
+     */
+    @SuppressWarnings("unchecked")
+    private E element(int node) {
+        return (E) elements[node];
+    }
+
+    /**
+     * Returns the reusable path buffer, creating it after deserialization.
+     *
+     * @return the path buffer
+     */
+    private int[] path() {
+        if (path == null) {
+            path = new int[MAX_HEIGHT];
+        }
+        return path;
+    }
+
+    /**
+     * Hands out a slot for a new leaf, reusing a released slot if there is one
+     * and growing the pool by half its size otherwise.
+     *
+     * @param element the element of the new leaf
+     * @return the index of the new leaf
+     */
+    private int allocate(E element) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (used == elements.length) {
+                int capacity = elements.length + Math.max(elements.length >> 1, 1);
+                elements = Arrays.copyOf(elements, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+            }
+            node = used++;
+        }
+        elements[node] = element;
+        left[node] = NIL;
+        right[node] = NIL;
+        sizes[node] = 1;
+        heights[node] = 1;
+        return node;
+    }
+
+    /**
+     * Returns a slot to the free list.
+     *
+     * @param node the index of the unlinked node
+     * @return the element the node held
+     */
+    private E release(int node) {
+        E element = element(node);
+        elements[node] = null;
+        left[node] = free;
+        free = node;
+        size--;
+        return element;
+    }
+
+    /**
+     * Returns the height of the given subtree, treating NIL as empty.
+     *
+     * @param node the index of the node, may be NIL
+     * @return the height of the subtree
+     */
+    private int heightOf(int node) {
+        return node == NIL ? 0 : heights[node];
+    }
+
+    /**
+     * Returns the size of the given subtree, treating NIL as empty.
+     *
+     * @param node the index of the node, may be NIL
+     * @return the number of elements in the subtree
+     */
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : sizes[node];
+    }
+
+    /**
+     * Recomputes the height and size of the given node from its children.
+     *
+     * @param node the index of the node
+     */
+    private void updateNode(int node) {
+        heights[node] = (byte) (1 + Math.max(heightOf(left[node]), heightOf(right[node])));
+        sizes[node] = 1 + sizeOf(left[node]) + sizeOf(right[node]);
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the left.
+     *
+     * @param node the index of the root, which must have a right child
+     * @return the index of the new root of the subtree
+     */
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the right.
+     *
+     * @param node the index of the root, which must have a left child
+     * @return the index of the new root of the subtree
+     */
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Updates the bookkeeping of the given node and performs the single or
+     * double rotation needed to bring its balance factor back within one.
+     *
+     * @param node the index of a subtree root whose children are balanced
+     * @return the index of the new root of the subtree
+     */
+    private int rebalance(int node) {
+        updateNode(node);
+        int balance = heightOf(left[node]) - heightOf(right[node]);
+        if (balance > 1) {
+            if (heightOf(left[left[node]]) < heightOf(right[left[node]])) {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (heightOf(right[right[node]]) < heightOf(left[right[node]])) {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Rebalances every node on the recorded path from the deepest one back up
+     * to the root, relinking rotated subtrees into their parents.
+     *
+     * @param depth the number of recorded nodes
+     */
+    private void repairPath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int subtree = rebalance(node);
+            if (subtree != node) {
+                if (i == 0) {
+                    root = subtree;
+                } else if (left[path[i - 1]] == node) {
+                    left[path[i - 1]] = subtree;
+                } else {
+                    right[path[i - 1]] = subtree;
+                }
+            }
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in inorder with a stack of node indices
+     * bounded by the tree height.
+     */
+    private class InorderIterator implements Iterator<E> {
+
+        private final int[] stack = new int[heightOf(root) + 1];
+        private int top;
+
+        /**
+         * Constructs an InorderIterator by descending to the smallest element.
+         */
+        public InorderIterator() {
+            pushLeftSpine(root);
+        }
+
+        /**
+         * Pushes the given node and all of its left descendants.
+         *
+         * @param node the index to start from, may be NIL
+         */
+        private void pushLeftSpine(int node) {
+            while (node != NIL) {
+                stack[top++] = node;
+                node = left[node];
+            }
+        }
+
+        /**
+         * Checks whether there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            int node = stack[--top];
+            pushLeftSpine(right[node]);
+            return element(node);
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in preorder with a stack of node
+     * indices bounded by the tree height.
+     */
+    private class PreorderIterator implements Iterator<E> {
+
+        private final int[] stack = new int[heightOf(root) + 1];
+        private int top;
+
+        /**
+         * Constructs a new PreorderIterator.
+         */
+        public PreorderIterator() {
+            if (root != NIL) {
+                stack[top++] = root;
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            int node = stack[--top];
+            if (right[node] != NIL) {
+                stack[top++] = right[node];
+            }
+            if (left[node] != NIL) {
+                stack[top++] = left[node];
+            }
+            return element(node);
+        }
+    }
+
+    /**
+     * Iterator for traversing the tree in postorder with a stack of node
+     * indices bounded by the tree height.
+     */
+    private class PostorderIterator implements Iterator<E> {
+
+        private final int[] stack = new int[heightOf(root) + 1];
+        private int top;
+
+        /**
+         * Constructs a new PostorderIterator.
+         */
+        public PostorderIterator() {
+            pushFirstLeaf(root);
+        }
+
+        /**
+         * Pushes the path from the given node down to the first node visited
+         * in postorder.
+         *
+         * @param node the index to start from, may be NIL
+         */
+        private void pushFirstLeaf(int node) {
+            while (node != NIL) {
+                stack[top++] = node;
+                node = left[node] != NIL ? left[node] : right[node];
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            int node = stack[--top];
+            if (top > 0 && left[stack[top - 1]] == node) {
+                pushFirstLeaf(right[stack[top - 1]]);
+            }
+            return element(node);
+        }
+    }
+}
@@ -0,0 +1,728 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * Represents a self-adjusting binary search tree. Every access splays the node
+ * that was reached to the root through a sequence of rotations, so elements
+ * that are looked up often stay near the top of the tree and are found again
+ * in a few comparisons. Any sequence of m operations on a tree of n elements
+ * takes O(m log n) time in total, even though a single operation can take
+ * linear time.
+ *
+ * Because lookups restructure the tree, search, contains, rank and select are
+ * mutating operations and the tree must not be shared between threads without
+ * external locking. Iterators do not splay.
+ *
+ * @param <E> The type of elements stored in the tree, which must implement Comparable.
+ */
+public class SplayTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient BSTreeNode<E> root;
+    private transient BSTreeNode<E>[] path; // Reusable root-to-node path used while splaying
+
+    /**
+     * Constructs an empty splay tree.
+     */
+    public SplayTree() {
+    }
+
+    /**
+     * Retrieves the root node of the tree, which holds the element that was
+     * accessed last.
+     *
+     * @return the root node of the tree
+     * @throws NullPointerException if the tree is empty
+     */
+    public BSTreeNode<E> getRoot() throws NullPointerException {
+        if (root == null) {
+            throw new NullPointerException("Tree is empty");
+        }
+        return root;
+    }
+
+    /**
+     * Returns the height of the tree. The height of every subtree is kept up
+     * to date by the rotations, so this takes constant time.
+     *
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Clears all elements from the tree.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Checks if the tree contains the specified entry, splaying the last node
+     * reached to the root.
+     *
+     * @param entry the element to search for
+     * @return true if the element is found, false otherwise
+     * @throws NullPointerException if the entry is null
+     */
+    public boolean contains(E entry) throws NullPointerException {
+        return search(entry) != null;
+    }
+
+    /**
+     * Searches for a specific entry and splays the node holding it to the
+     * root. When the entry is missing the last node reached is splayed
+     * instead, so repeated misses near the same element also get cheaper.
+     *
+     * @param entry the element to search for
+     * @return the node containing the element, or null if not found
+     * @throws NullPointerException if the entry is null
+     */
+    public BSTreeNode<E> search(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot search for a null entry");
+        }
+        if (root == null) {
+            return null;
+        }
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        while (true) {
+            pushPath(depth, node);
+            int compareResult = entry.compareTo(node.getElement());
+            BSTreeNode<E> next = compareResult < 0 ? node.getLeft() : node.getRight();
+            if (compareResult == 0 || next == null) {
+                splay(depth);
+                return compareResult == 0 ? node : null;
+            }
+            node = next;
+            depth++;
+        }
+    }
+
+    /**
+     * Adds a new entry to the tree as a leaf and splays it to the root. A
+     * duplicate is splayed to the root instead.
+     *
+     * @param newEntry the element to be added
+     * @return true if the element was successfully added, false if it already
+     * exists
+     * @throws NullPointerException if the new entry is null
+     */
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) {
+            throw new NullPointerException("Cannot add null entry to the tree");
+        }
+        return insert(newEntry) == null;
+    }
+
+    /**
+     * Adds the entry if no equal element is stored, otherwise replaces the
+     * stored element with the result of the remapping function. Either way
+     * the node is found or created in a single descent and splayed to the
+     * root.
+     *
+     * @param entry the element to be added or combined
+     * @param remapping the function given the stored element and the entry
+     * @return the element stored in the tree after the call
+     * @throws NullPointerException if the entry or the function is null, or if
+     * the function returns null
+     * @throws IllegalArgumentException if the function returns an element that
+     * is not equal to the stored one
+     */
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E> remapping) throws NullPointerException, IllegalArgumentException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException("Cannot merge a null entry or function");
+        }
+        BSTreeNode<E> existing = insert(entry);
+        if (existing == null) {
+            return entry;
+        }
+        E merged = remapping.apply(existing.getElement(), entry);
+        if (merged == null) {
+            throw new NullPointerException("Merge function returned null");
+        }
+        if (merged.compareTo(existing.getElement()) != 0) {
+            throw new IllegalArgumentException("Merge function changed the key");
+        }
+        existing.setData(merged);
+        return merged;
+    }
+
+    /**
+     * Links the entry as a new leaf where the search for it ends and splays
+     * it to the root, or splays the node already holding an equal element.
+     *
+     * @param newEntry the element to be added
+     * @return the node already holding an equal element, or null if the entry
+     * was added
+     */
+    private BSTreeNode<E> insert(E newEntry) {
+        if (root == null) {
+            root = new BSTreeNode<>(newEntry);
+            return null;
+        }
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        while (true) {
+            pushPath(depth, node);
+            int compareResult = newEntry.compareTo(node.getElement());
+            if (compareResult == 0) {
+                splay(depth);
+                return node;
+            }
+            BSTreeNode<E> next = compareResult < 0 ? node.getLeft() : node.getRight();
+            if (next == null) {
+                next = new BSTreeNode<>(newEntry);
+                if (compareResult < 0) {
+                    node.setLeft(next);
+                } else {
+                    node.setRight(next);
+                }
+                pushPath(depth + 1, next);
+                splay(depth + 1);
+                return null;
+            }
+            node = next;
+            depth++;
+        }
+    }
+
+    /**
+     * Removes the smallest element by splaying it to the root and replacing
+     * the root with its right subtree.
+     *
+     * @return the detached node with the minimum value, or null if the tree
+     * is empty
+     */
+    public BSTreeNode<E> removeMin() {
+        if (root == null) {
+            return null;
+        }
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        pushPath(depth, node);
+        while (node.getLeft() != null) {
+            node = node.getLeft();
+            pushPath(++depth, node);
+        }
+        splay(depth);
+        root = node.getRight();
+        node.setRight(null);
+        updateNode(node);
+        return node;
+    }
+
+    /**
+     * Removes the largest element by splaying it to the root and replacing
+     * the root with its left subtree.
+     *
+     * @return the detached node with the maximum value, or null if the tree
+     * is empty
+     */
+    public BSTreeNode<E> removeMax() {
+        if (root == null) {
+            return null;
+        }
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        pushPath(depth, node);
+        while (node.getRight() != null) {
+            node = node.getRight();
+            pushPath(++depth, node);
+        }
+        splay(depth);
+        root = node.getLeft();
+        node.setLeft(null);
+        updateNode(node);
+        return node;
+    }
+
+    /**
+     * Counts the elements smaller than the given entry from the subtree sizes
+     * along a single descent, then splays the last node reached.
+     *
+     * @param entry the element to rank
+     * @return the number of elements in the tree smaller than the entry
+     * @throws NullPointerException if the entry is null
+     */
+    public int rank(E entry) throws NullPointerException {
+        if (entry == null) {
+            throw new NullPointerException("Cannot rank a null entry");
+        }
+        int rank = 0;
+        int depth = -1;
+        BSTreeNode<E> node = root;
+        while (node != null) {
+            pushPath(++depth, node);
+            int compareResult = entry.compareTo(node.getElement());
+            if (compareResult < 0) {
+                node = node.getLeft();
+            } else {
+                rank += sizeOf(node.getLeft());
+                if (compareResult == 0) {
+                    break;
+                }
+                rank++;
+                node = node.getRight();
+            }
+        }
+        if (depth >= 0) {
+            splay(depth);
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieves the node at the given position of the inorder traversal and
+     * splays it to the root.
+     *
+     * @param index the zero based position of the element in the natural order
+     * @return the node holding the element at the given position
+     * @throws IndexOutOfBoundsException if the index is negative or not less
+     * than the size of the tree
+     */
+    public BSTreeNode<E> select(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int depth = 0;
+        BSTreeNode<E> node = root;
+        while (true) {
+            pushPath(depth, node);
+            int leftSize = sizeOf(node.getLeft());
+            if (index < leftSize) {
+                node = node.getLeft();
+            } else if (index == leftSize) {
+                splay(depth);
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.getRight();
+            }
+            depth++;
+        }
+    }
+
+    /**
+     * Records a node at the given depth of the current root-to-node path,
+     * growing the path buffer if needed.
+     *
+     * @param depth the depth of the node, where the root is at depth 0
+     * @param node the node on the path
+     */
+    private void pushPath(int depth, BSTreeNode<E> node) {
+        if (path == null) {
+            path = BSTree.newPath(16);
+        } else if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth] = node;
+    }
+
+    /**
+     * Moves the node recorded at the given depth of the path to the root with
+     * zig-zig and zig-zag steps, finishing with a single zig when the node
+     * started at an odd depth. Every node on the path is rotated, so the
+     * heights and sizes of all of them are brought up to date.
+     *
+     * @param depth the depth of the node to splay
+     */
+    private void splay(int depth) {
+        BSTreeNode<E> node = path[depth];
+        while (depth >= 2) {
+            BSTreeNode<E> parent = path[depth - 1];
+            BSTreeNode<E> grandparent = path[depth - 2];
+            boolean nodeIsLeft = parent.getLeft() == node;
+            boolean parentIsLeft = grandparent.getLeft() == parent;
+            if (nodeIsLeft == parentIsLeft) {
+                if (nodeIsLeft) {
+                    rotateRight(rotateRight(grandparent));
+                } else {
+                    rotateLeft(rotateLeft(grandparent));
+                }
+            } else if (nodeIsLeft) {
+                grandparent.setRight(rotateRight(parent));
+                rotateLeft(grandparent);
+            } else {
+                grandparent.setLeft(rotateLeft(parent));
+                rotateRight(grandparent);
+            }
+            if (depth > 2) {
+                BSTreeNode<E> ancestor = path[depth - 3];
+                if (ancestor.getLeft() == grandparent) {
+                    ancestor.setLeft(node);
+                } else {
+                    ancestor.setRight(node);
+                }
+            }
+            path[depth] = null;
+            path[depth - 1] = null;
+            depth -= 2;
+        }
+        if (depth == 1) {
+            if (path[0].getLeft() == node) {
+                rotateRight(path[0]);
+            } else {
+                rotateLeft(path[0]);
+            }
+            path[1] = null;
+        }
+        path[0] = null;
+        root = node;
+    }
+
+    /**
+     * Returns the stored height of the given node, treating null as an empty
+     * subtree of height 0.
+     *
+     * @param node the node to inspect, may be null
+     * @return the stored height of the node
+     */
+    private int heightOf(BSTreeNode<E> node) {
+        return node == null ? 0 : node.getHeight();
+    }
+
+    /**
+     * Returns the stored subtree size of the given node, treating null as an
+     * empty subtree.
+     *
+     * @param node the node to inspect, may be null
+     * @return the number of elements in the subtree rooted at the node
+     */
+    private int sizeOf(BSTreeNode<E> node) {
+        return node == null ? 0 : node.getSize();
+    }
+
+    /**
+     * Recomputes the stored height and subtree size of the given node from its
+     * children.
+     *
+     * @param node the node to update
+     */
+    private void updateNode(BSTreeNode<E> node) {
+        node.setHeight(1 + Math.max(heightOf(node.getLeft()), heightOf(node.getRight())));
+        node.setSize(1 + sizeOf(node.getLeft()) + sizeOf(node.getRight()));
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the left.
+     *
+     * @param node the root of the subtree, which must have a right child
+     * @return the new root of the subtree
+     */
+    private BSTreeNode<E> rotateLeft(BSTreeNode<E> node) {
+        BSTreeNode<E> pivot = node.getRight();
+        node.setRight(pivot.getLeft());
+        pivot.setLeft(node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the right.
+     *
+     * @param node the root of the subtree, which must have a left child
+     * @return the new root of the subtree
+     */
+    private BSTreeNode<E> rotateRight(BSTreeNode<E> node) {
+        BSTreeNode<E> pivot = node.getLeft();
+        node.setLeft(pivot.getRight());
+        pivot.setRight(node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+
+    /**
+     * Writes the number of elements followed by the elements in sorted order,
+     * so that a degenerate tree does not overflow the stack of the default
+     * recursive serialization.
+     *
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        Iterator<E> it = inorderIterator();
+        while (it.hasNext()) {
+            out.writeObject(it.next());
+        }
+    }
+
+    /**
+     * Reads the elements written by writeObject and rebuilds the tree
+     * perfectly balanced from them.
+     *
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if an element class cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        ArrayList<E> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add((E) in.readObject());
+        }
+        root = buildBalanced(elements, 0, count);
+    }
+
+    /**
+     * Builds a perfectly balanced subtree from a sorted slice of elements.
+     *
+     * @param elements the elements in ascending order
+     * @param from the index of the first element of the slice, inclusive
+     * @param to the index of the last element of the slice, exclusive
+     * @return the root of the subtree, or null if the slice is empty
+     */
+    private BSTreeNode<E> buildBalanced(ArrayList<E> elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        BSTreeNode<E> node = new BSTreeNode<>(elements.get(middle));
+        node.setLeft(buildBalanced(elements, from, middle));
+        node.setRight(buildBalanced(elements, middle + 1, to));
+        updateNode(node);
+        return node;
+    }
+
+    /**
+     * Returns an iterator for traversing the tree in inorder.
+     *
+     * @return an iterator for inorder traversal
+     */
+    public Iterator<E> inorderIterator() {
+        return new InorderIterator(root);
+    }
+
+    /**
+     * Iterator for traversing the elements of the tree in inorder. Only the
+     * path from the root to the next node is kept on an explicit stack.
+     */
+    private class InorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<BSTreeNode<E>> stack;
+
+        /**
+         * Constructs an InorderIterator by descending to the smallest element.
+         *
+         * @param root the root node of the tree
+         */
+        public InorderIterator(BSTreeNode<E> root) {
+            stack = new ArrayDeque<>();
+            pushLeftSpine(root);
+        }
+
+        /**
+         * Pushes the given node and all of its left descendants onto the
+         * stack.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushLeftSpine(BSTreeNode<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft();
+            }
+        }
+
+        /**
+         * Checks whether there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            BSTreeNode<E> node = stack.pop();
+            pushLeftSpine(node.getRight());
+            return node.getElement();
+        }
+    }
+
+    /**
+     * Returns an iterator for traversing the tree in preorder.
+     *
+     * @return an iterator for preorder traversal
+     */
+    public Iterator<E> preorderIterator() {
+        return new PreorderIterator(root);
+    }
+
+    /**
+     * Iterator for traversing the elements of the tree in preorder. Pending
+     * right subtrees are kept on an explicit stack.
+     */
+    private class PreorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<BSTreeNode<E>> stack;
+
+        /**
+         * Constructs a new PreorderIterator for the tree.
+         *
+         * @param root the root node of the tree to iterate over
+         */
+        public PreorderIterator(BSTreeNode<E> root) {
+            stack = new ArrayDeque<>();
+            if (root != null) {
+                stack.push(root);
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            BSTreeNode<E> node = stack.pop();
+            if (node.getRight() != null) {
+                stack.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                stack.push(node.getLeft());
+            }
+            return node.getElement();
+        }
+    }
+
+    /**
+     * Returns an iterator for traversing the tree in postorder.
+     *
+     * @return an iterator for postorder traversal
+     */
+    public Iterator<E> postorderIterator() {
+        return new PostorderIterator(root);
+    }
+
+    /**
+     * Iterator for traversing the elements of the tree in postorder. The stack
+     * holds the ancestors of the next node to visit.
+     */
+    private class PostorderIterator implements Iterator<E> {
+
+        private final ArrayDeque<BSTreeNode<E>> stack;
+
+        /**
+         * Constructs a new PostorderIterator for the tree.
+         *
+         * @param root the root node of the tree to iterate over
+         */
+        public PostorderIterator(BSTreeNode<E> root) {
+            stack = new ArrayDeque<>();
+            pushFirstLeaf(root);
+        }
+
+        /**
+         * Pushes the path from the given node down to the first node that is
+         * visited in postorder, preferring left children over right ones.
+         *
+         * @param node the node to start from, may be null
+         */
+        private void pushFirstLeaf(BSTreeNode<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.getLeft() != null ? node.getLeft() : node.getRight();
+            }
+        }
+
+        /**
+         * Checks if there are more elements to iterate over.
+         *
+         * @return true if there are more elements, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Retrieves the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if there are no more elements to
+         * iterate over
+         */
+        @Override
+        public E next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the tree");
+            }
+            BSTreeNode<E> node = stack.pop();
+            if (!stack.isEmpty()) {
+                BSTreeNode<E> parent = stack.peek();
+                if (parent.getLeft() == node) {
+                    pushFirstLeaf(parent.getRight());
+                }
+            }
+            return node.getElement();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package implementations;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Records statistics about the shape of a BSTree and the cost of its
+ * operations. A tree only creates one when statistics are enabled and checks
+ * for null before every update, so a tree without statistics pays a single
+ * field test per operation.
+ *
+ * The counters are updated by the thread using the tree without
+ * synchronization, so a JMX client reading them from another thread sees
+ * approximate values.
+ */
+public class TreeStats implements TreeStatsMBean {
+
+    /**
+     * The number of depths the histogram tells apart.
+     */
+    public static final int HISTOGRAM_DEPTHS = 32;
+
+    private final BSTree<?> tree;
+    private long insertCount;
+    private long insertComparisons;
+    private long insertNanos;
+    private long searchCount;
+    private long searchComparisons;
+    private long searchNanos;
+    private long rotationCount;
+    private long rebuildCount;
+    private final long[] depthHistogram = new long[HISTOGRAM_DEPTHS];
+
+    /**
+     * Constructs the statistics of a tree.
+     *
+     * @param tree the tree whose operations are recorded
+     */
+    TreeStats(BSTree<?> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Registers these statistics with the platform MBean server so that JMX
+     * clients such as JConsole can read them.
+     *
+     * @param name the name that tells this tree apart from others
+     * @return the name the statistics were registered under
+     * @throws JMException if the name is invalid or already registered
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("implementations:type=BSTree,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Records an insertion.
+     *
+     * @param comparisons the number of comparisons it made
+     * @param depth the depth at which it ended
+     * @param startNanos the value of System.nanoTime() when it started
+     */
+    void recordInsert(int comparisons, int depth, long startNanos) {
+        insertNanos += System.nanoTime() - startNanos;
+        insertCount++;
+        insertComparisons += comparisons;
+        recordDepth(depth);
+    }
+
+    /**
+     * Records the insertions made together by one operation that rebuilds the
+     * tree, such as a union. The depth of each inserted element is recorded
+     * separately with recordDepth.
+     *
+     * @param count the number of insertions, including duplicates
+     * @param comparisons the number of comparisons made for all of them
+     * @param startNanos the value of System.nanoTime() when the operation
+     * started
+     */
+    void recordInserts(int count, long comparisons, long startNanos) {
+        insertNanos += System.nanoTime() - startNanos;
+        insertCount += count;
+        insertComparisons += comparisons;
+    }
+
+    /**
+     * Records that an insertion or search ended at the given depth.
+     *
+     * @param depth the depth, where the root is at depth 0
+     */
+    void recordDepth(int depth) {
+        depthHistogram[Math.min(depth, HISTOGRAM_DEPTHS - 1)]++;
+    }
+
+    /**
+     * Records a search.
+     *
+     * @param comparisons the number of comparisons it made
+     * @param depth the depth at which it ended
+     * @param startNanos the value of System.nanoTime() when it started
+     */
+    void recordSearch(int comparisons, int depth, long startNanos) {
+        searchNanos += System.nanoTime() - startNanos;
+        searchCount++;
+        searchComparisons += comparisons;
+        recordDepth(depth);
+    }
+
+    /**
+     * Records a single rotation.
+     */
+    void recordRotation() {
+        rotationCount++;
+    }
+
+    /**
+     * Records a rebuild of the whole tree.
+     */
+    void recordRebuild() {
+        rebuildCount++;
+    }
+
+    /**
+     * Returns the number of elements currently in the tree.
+     *
+     * @return the number of nodes
+     */
+    @Override
+    public int getNodeCount() {
+        return tree.size();
+    }
+
+    /**
+     * Returns the current height of the tree.
+     *
+     * @return the height of the tree
+     */
+    @Override
+    public int getHeight() {
+        return tree.getHeight();
+    }
+
+    /**
+     * Returns the number of insertions attempted, including duplicates.
+     *
+     * @return the number of insertions
+     */
+    @Override
+    public long getInsertCount() {
+        return insertCount;
+    }
+
+    /**
+     * Returns the number of searches performed.
+     *
+     * @return the number of searches
+     */
+    @Override
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    /**
+     * Returns the number of element comparisons made by insertions and
+     * searches.
+     *
+     * @return the number of comparisons
+     */
+    @Override
+    public long getComparisonCount() {
+        return insertComparisons + searchComparisons;
+    }
+
+    /**
+     * Returns the average number of comparisons made by an insertion.
+     *
+     * @return the average comparisons per insertion, or 0 if there were none
+     */
+    @Override
+    public double getAverageInsertComparisons() {
+        return average(insertComparisons, insertCount);
+    }
+
+    /**
+     * Returns the average number of comparisons made by a search.
+     *
+     * @return the average comparisons per search, or 0 if there were none
+     */
+    @Override
+    public double getAverageSearchComparisons() {
+        return average(searchComparisons, searchCount);
+    }
+
+    /**
+     * Returns the average time taken by an insertion.
+     *
+     * @return the average insertion time in nanoseconds
+     */
+    @Override
+    public double getAverageInsertNanos() {
+        return average(insertNanos, insertCount);
+    }
+
+    /**
+     * Returns the average time taken by a search.
+     *
+     * @return the average search time in nanoseconds
+     */
+    @Override
+    public double getAverageSearchNanos() {
+        return average(searchNanos, searchCount);
+    }
+
+    /**
+     * Returns the number of rotations performed while rebalancing.
+     *
+     * @return the number of rotations
+     */
+    @Override
+    public long getRotationCount() {
+        return rotationCount;
+    }
+
+    /**
+     * Returns the number of times the whole tree was rebuilt from a sorted
+     * sequence.
+     *
+     * @return the number of rebuilds
+     */
+    @Override
+    public long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Returns how many insertions and searches ended at each depth, where the
+     * root is at depth 0 and the last entry also counts every deeper one.
+     *
+     * @return the depth histogram
+     */
+    @Override
+    public long[] getDepthHistogram() {
+        return depthHistogram.clone();
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    @Override
+    public void reset() {
+        insertCount = 0;
+        insertComparisons = 0;
+        insertNanos = 0;
+        searchCount = 0;
+        searchComparisons = 0;
+        searchNanos = 0;
+        rotationCount = 0;
+        rebuildCount = 0;
+        Arrays.fill(depthHistogram, 0);
+    }
+
+    /**
+     * Divides a total by a count, treating an empty count as an average of 0.
+     *
+     * @param total the sum of the recorded values
+     * @param count the number of recorded values
+     * @return the average value
+     */
+    private static double average(long total, long count) {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns a multi-line report of every statistic, listing only the depths
+     * that were reached.
+     *
+     * @return the report
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("Nodes: ").append(getNodeCount()).append(System.lineSeparator());
+        report.append("Height: ").append(getHeight()).append(System.lineSeparator());
+        report.append(String.format("Inserts: %d (%.2f comparisons, %.0f ns on average)%n",
+                insertCount, getAverageInsertComparisons(), getAverageInsertNanos()));
+        report.append(String.format("Searches: %d (%.2f comparisons, %.0f ns on average)%n",
+                searchCount, getAverageSearchComparisons(), getAverageSearchNanos()));
+        report.append("Rotations: ").append(rotationCount).append(System.lineSeparator());
+        report.append("Rebuilds: ").append(rebuildCount).append(System.lineSeparator());
+        report.append("Depths reached:");
+        for (int depth = 0; depth < HISTOGRAM_DEPTHS; depth++) {
+            if (depthHistogram[depth] != 0) {
+                report.append(' ').append(depth).append(depth == HISTOGRAM_DEPTHS - 1 ? "+" : "")
+                        .append('=').append(depthHistogram[depth]);
+            }
+        }
+        return report.toString();
+    }
+}
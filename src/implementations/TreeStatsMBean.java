@@ -0,0 +1,100 @@
+package implementations;
+
+/**
+ * Management interface through which JMX clients read the statistics a
+ * BSTree records about its shape and its operations.
+ */
+public interface TreeStatsMBean {
+
+    /**
+     * Returns the number of elements currently in the tree.
+     *
+     * @return the number of nodes
+     */
+    int getNodeCount();
+
+    /**
+     * Returns the current height of the tree.
+     *
+     * @return the height of the tree
+     */
+    int getHeight();
+
+    /**
+     * Returns the number of insertions attempted, including duplicates.
+     *
+     * @return the number of insertions
+     */
+    long getInsertCount();
+
+    /**
+     * Returns the number of searches performed.
+     *
+     * @return the number of searches
+     */
+    long getSearchCount();
+
+    /**
+     * Returns the number of element comparisons made by insertions and
+     * searches.
+     *
+     * @return the number of comparisons
+     */
+    long getComparisonCount();
+
+    /**
+     * Returns the average number of comparisons made by an insertion.
+     *
+     * @return the average comparisons per insertion, or 0 if there were none
+     */
+    double getAverageInsertComparisons();
+
+    /**
+     * Returns the average number of comparisons made by a search.
+     *
+     * @return the average comparisons per search, or 0 if there were none
+     */
+    double getAverageSearchComparisons();
+
+    /**
+     * Returns the average time taken by an insertion.
+     *
+     * @return the average insertion time in nanoseconds
+     */
+    double getAverageInsertNanos();
+
+    /**
+     * Returns the average time taken by a search.
+     *
+     * @return the average search time in nanoseconds
+     */
+    double getAverageSearchNanos();
+
+    /**
+     * Returns the number of rotations performed while rebalancing.
+     *
+     * @return the number of rotations
+     */
+    long getRotationCount();
+
+    /**
+     * Returns the number of times the whole tree was rebuilt from a sorted
+     * sequence.
+     *
+     * @return the number of rebuilds
+     */
+    long getRebuildCount();
+
+    /**
+     * Returns how many insertions and searches ended at each depth, where the
+     * root is at depth 0 and the last entry also counts every deeper one.
+     *
+     * @return the depth histogram
+     */
+    long[] getDepthHistogram();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
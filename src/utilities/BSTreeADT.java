@@ -4,6 +4,7 @@
 package utilities;
 
 import java.io.Serializable;
+import java.util.function.BiFunction;
 
 import implementations.BSTreeNode;
 
@@ -86,6 +87,23 @@ public interface BSTreeADT<E extends Comparable<? super E>> extends	Serializable
 	 */
 	public boolean add( E newEntry ) throws NullPointerException;
 
+	/**
+	 * Adds the element to the tree if no equal element is stored, otherwise
+	 * replaces the stored element with the result of combining it with the
+	 * given one. Either way the tree is searched only once.
+	 * 
+	 * @param entry the element being added or combined
+	 * @param remapping the function given the stored element and the new
+	 *        element, returning the element to keep in their place
+	 * @return the element stored in the tree once the call completes
+	 * @throws NullPointerException if the element or the function is null, or
+	 *         if the function returns null
+	 * @throws IllegalArgumentException if the function returns an element that
+	 *         is not equal to the stored one
+	 */
+	public E merge( E entry, BiFunction<? super E, ? super E, ? extends E> remapping )
+			throws NullPointerException, IllegalArgumentException;
+
 	/**
 	 * Removes the smallest element in the tree according to the natural ordering
 	 * established by the Comparable implementation.
@@ -102,6 +120,29 @@ public interface BSTreeADT<E extends Comparable<? super E>> extends	Serializable
 	 */
 	public BSTreeNode<E> removeMax();
 
+	/**
+	 * Counts the elements in the tree that are strictly smaller than the given
+	 * element according to the natural ordering established by the Comparable
+	 * implementation. The element itself does not need to be in the tree.
+	 * 
+	 * @param entry the element to rank
+	 * @return the number of elements in the tree smaller than the element
+	 * @throws NullPointerException if the element being passed in is null
+	 */
+	public int rank( E entry ) throws NullPointerException;
+
+	/**
+	 * Retrieves the node holding the element at the given zero based position
+	 * of the natural ordering, so that <code>select(0)</code> is the smallest
+	 * element and <code>select(size() - 1)</code> is the largest.
+	 * 
+	 * @param index the zero based position of the element in the natural order
+	 * @return the node with the element at the given position
+	 * @throws IndexOutOfBoundsException if the index is negative or not less
+	 *         than the size of the tree
+	 */
+	public BSTreeNode<E> select( int index ) throws IndexOutOfBoundsException;
+
 	/**
 	 * Generates an in-order iteration over the contents of the tree. Elements are
 	 * in their natural order.
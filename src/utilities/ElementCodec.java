@@ -0,0 +1,62 @@
+package utilities;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * This interface converts the elements of a data structure to and from a
+ * compact binary form, so that the data structure can keep them outside of
+ * the Java heap. Implementations must be stateless, or at least thread safe,
+ * and serializable so that they can travel with the data structure.
+ *
+ * @param <E> The type of element this codec converts.
+ */
+public interface ElementCodec<E extends Comparable<? super E>> extends Serializable
+{
+	/**
+	 * Returns the number of bytes <code>encode</code> will write for the
+	 * element.
+	 * 
+	 * @param element the element to measure
+	 * @return the encoded length of the element in bytes
+	 */
+	public int encodedSize( E element );
+
+	/**
+	 * Writes the element at the current position of the buffer, advancing the
+	 * position by exactly <code>encodedSize(element)</code> bytes.
+	 * 
+	 * @param element the element to write
+	 * @param buffer the buffer to write to
+	 */
+	public void encode( E element, ByteBuffer buffer );
+
+	/**
+	 * Reads an element written by <code>encode</code> at the current position
+	 * of the buffer, advancing the position past it.
+	 * 
+	 * @param buffer the buffer to read from
+	 * @return a new element equal to the one that was encoded
+	 */
+	public E decode( ByteBuffer buffer );
+
+	/**
+	 * Compares an element with an encoded element stored at the given absolute
+	 * offset of the buffer, with the same result as
+	 * <code>entry.compareTo(decoded)</code>. The default implementation
+	 * decodes the stored element; implementations should override it to
+	 * compare the encoded form directly.
+	 * 
+	 * @param entry the element to compare
+	 * @param buffer the buffer holding the encoded element
+	 * @param offset the absolute offset of the encoded element
+	 * @return a negative number, zero or a positive number as the element is
+	 *         less than, equal to or greater than the encoded element
+	 */
+	public default int compare( E entry, ByteBuffer buffer, int offset )
+	{
+		ByteBuffer view = buffer.duplicate();
+		view.position( offset );
+		return entry.compareTo( decode( view ) );
+	}
+}
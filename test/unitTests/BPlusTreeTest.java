@@ -0,0 +1,145 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.BPlusTree;
+
+/**
+ * Class Description:
+ * Tests for the BPlusTree implementation of the BSTreeADT.
+ */
+public class BPlusTreeTest {
+	// Attributes
+	private BPlusTree<Integer> tree;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new BPlusTree<Integer>(4);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		tree = null;
+	}
+
+	/**
+	 * Test method for random additions and removals against a TreeSet.
+	 */
+	@Test
+	public void testRandomOperations() {
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		Random random = new Random(304);
+		for (int i = 0; i < 5000; i++) {
+			int value = random.nextInt(3000);
+			assertEquals("Correct boolean was not returned ", expected.add(value), tree.add(value));
+			if (i % 7 == 0 && !expected.isEmpty()) {
+				assertEquals("Min was not returned correctly ", expected.pollFirst(), tree.removeMin().getElement());
+			}
+			if (i % 11 == 0 && !expected.isEmpty()) {
+				assertEquals("Max was not returned correctly ", expected.pollLast(), tree.removeMax().getElement());
+			}
+		}
+		assertEquals("Size of tree should be ", expected.size(), tree.size());
+		Iterator<Integer> it = tree.inorderIterator();
+		int index = 0;
+		for (Integer value : expected) {
+			assertEquals("Inorder iterator is out of order ", value, it.next());
+			assertEquals("Selected element is not correct ", value, tree.select(index).getElement());
+			assertEquals("Rank of element is not correct ", index, tree.rank(value));
+			assertTrue("Element was not found in the tree ", tree.contains(value));
+			index++;
+		}
+		assertFalse("Inorder iterator returned too many elements ", it.hasNext());
+		assertFalse("Element found in the tree and should not ", tree.contains(-1));
+	}
+
+	/**
+	 * Test method for the height and root of a small tree.
+	 */
+	@Test
+	public void testHeightAndRoot() {
+		for (int i = 1; i <= 4; i++) {
+			tree.add(i);
+		}
+		assertEquals("Height of tree is not correct ", 1, tree.getHeight());
+		assertEquals("Root of tree is not returned correctly ", 1, (int) tree.getRoot().getElement());
+		tree.add(5);
+		assertEquals("Height of tree is not correct ", 2, tree.getHeight());
+		assertEquals("Root of tree is not returned correctly ", 3, (int) tree.getRoot().getElement());
+		while (!tree.isEmpty()) {
+			tree.removeMax();
+		}
+		assertEquals("Height of tree is not correct ", 0, tree.getHeight());
+		assertNull("Max was not returned correctly ", tree.removeMax());
+	}
+
+	/**
+	 * Test method for removing from a tree whose root is still a single leaf,
+	 * both when built by adding and when read back from a stream.
+	 *
+	 * @throws Exception if serialization fails
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRemoveFromSingleLeaf() throws Exception {
+		BPlusTree<Integer> small = new BPlusTree<Integer>();
+		small.add(1);
+		small.add(2);
+		small.add(3);
+		assertEquals("Height of tree is not correct ", 1, small.getHeight());
+		assertEquals("Min was not returned correctly ", 1, (int) small.removeMin().getElement());
+		assertEquals("Max was not returned correctly ", 3, (int) small.removeMax().getElement());
+		assertEquals("Size of tree should be ", 1, small.size());
+
+		java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);
+		out.writeObject(small);
+		out.close();
+		java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()));
+		BPlusTree<Integer> copy = (BPlusTree<Integer>) in.readObject();
+		assertEquals("Max was not returned correctly ", 2, (int) copy.removeMax().getElement());
+		assertTrue("Tree is not indicated as empty ", copy.isEmpty());
+		assertNull("Min was not returned correctly ", copy.removeMin());
+	}
+
+	/**
+	 * Test method for writing a tree to a stream and reading it back.
+	 *
+	 * @throws Exception if serialization fails
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSerialization() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			tree.add(i);
+		}
+		java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);
+		out.writeObject(tree);
+		out.close();
+		java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()));
+		BPlusTree<Integer> copy = (BPlusTree<Integer>) in.readObject();
+
+		assertEquals("Size of tree should be ", 100, copy.size());
+		assertEquals("Height of tree is not correct ", 4, copy.getHeight());
+		assertEquals("Selected element is not correct ", 57, (int) copy.select(57).getElement());
+		assertTrue("Element not added ", copy.add(1000));
+		assertEquals("Max was not returned correctly ", 1000, (int) copy.removeMax().getElement());
+		assertEquals("Min was not returned correctly ", 0, (int) copy.removeMin().getElement());
+	}
+}
@@ -2,14 +2,24 @@ package unitTests;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import utilities.Iterator;
 
+import appDomain.Word;
+import appDomain.WordTracker;
+
 import implementations.BSTree;
 import implementations.BSTreeNode;
+import implementations.TreeStats;
 
 /**
  * @author kitty
@@ -559,4 +569,483 @@ public class BSTreeTest {
 	public void testRemoveMaxNull() {
 		assertNull("Max was not returned correctly ", tree.removeMax());
 	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#BSTree(boolean)} with sorted
+	 * input, which must not degenerate into a linked list.
+	 */
+	@Test
+	public void testBalanced_SortedInputHeight() {
+		BSTree<Integer> balancedTree = new BSTree<Integer>(true);
+		for (int i = 1; i <= 1023; i++) {
+			balancedTree.add(i);
+		}
+		assertEquals("Size of tree should be ", 1023, balancedTree.size());
+		assertEquals("Height of tree is not correct ", 10, balancedTree.getHeight());
+		assertEquals("Duplicate was added ", false, balancedTree.add(512));
+	}
+
+	/**
+	 * Test method for removing from a balanced tree while keeping the inorder
+	 * iteration correct.
+	 */
+	@Test
+	public void testBalanced_RemoveMinMax() {
+		BSTree<Integer> balancedTree = new BSTree<Integer>(true);
+		balancedTree.add(one);
+		balancedTree.add(two);
+		balancedTree.add(three);
+		balancedTree.add(four);
+		balancedTree.add(five);
+		balancedTree.add(six);
+		balancedTree.add(seven);
+		assertEquals("Height of tree is not correct ", 3, balancedTree.getHeight());
+
+		assertEquals("Min was not returned correctly ", one, balancedTree.removeMin().getElement());
+		assertEquals("Max was not returned correctly ", seven, balancedTree.removeMax().getElement());
+		assertEquals("Min was not returned correctly ", two, balancedTree.removeMin().getElement());
+
+		Integer[] shouldBe = { three, four, five, six };
+		Iterator<Integer> it = balancedTree.inorderIterator();
+		int i = 0;
+		while (it.hasNext()) {
+			assertEquals("Inorder iterator is out of order ", shouldBe[i++], it.next());
+		}
+		assertEquals("Size of tree should be ", 4, balancedTree.size());
+		assertEquals("Height of tree is not correct ", 3, balancedTree.getHeight());
+	}
+
+	/**
+	 * Test method for add, search, getHeight, removeMin and removeMax on a
+	 * degenerate tree deep enough to overflow a recursive implementation.
+	 */
+	@Test
+	public void testDegenerateTree_NoStackOverflow() {
+		int count = 20000;
+		for (int i = 0; i < count; i++) {
+			tree.add(i);
+		}
+		assertEquals("Height of tree is not correct ", count, tree.getHeight());
+		assertEquals("Entry not found, ", count - 1, (int) tree.search(count - 1).getElement());
+		assertEquals("Max was not returned correctly ", count - 1, (int) tree.removeMax().getElement());
+		assertEquals("Min was not returned correctly ", 0, (int) tree.removeMin().getElement());
+		assertEquals("Size of tree should be ", count - 2, tree.size());
+
+		Iterator<Integer> it = tree.inorderIterator();
+		int expected = 1;
+		while (it.hasNext()) {
+			assertEquals("Inorder iterator is out of order ", expected++, (int) it.next());
+		}
+		assertEquals("Inorder iterator stopped early ", count - 1, expected);
+		it = tree.postorderIterator();
+		assertEquals("Postorder iterator is out of order ", count - 2, (int) it.next());
+		it = tree.preorderIterator();
+		assertEquals("Preorder iterator is out of order ", 1, (int) it.next());
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#rank(Comparable)}.
+	 */
+	@Test
+	public void testRank() {
+		tree.add(four);
+		tree.add(two);
+		tree.add(six);
+		tree.add(one);
+		tree.add(five);
+
+		assertEquals("Rank of smallest element is not correct ", 0, tree.rank(one));
+		assertEquals("Rank of element is not correct ", 3, tree.rank(five));
+		assertEquals("Rank of missing element is not correct ", 2, tree.rank(three));
+		assertEquals("Rank past the largest element is not correct ", 5, tree.rank(seven));
+		tree.removeMin();
+		assertEquals("Rank after removeMin is not correct ", 2, tree.rank(five));
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#select(int)}.
+	 */
+	@Test
+	public void testSelect() {
+		tree.add(four);
+		tree.add(two);
+		tree.add(six);
+		tree.add(one);
+		tree.add(five);
+		tree.add(three);
+		tree.add(seven);
+
+		Integer[] shouldBe = { one, two, three, four, five, six, seven };
+		for (int i = 0; i < shouldBe.length; i++) {
+			assertEquals("Selected element is not correct ", shouldBe[i], tree.select(i).getElement());
+		}
+		tree.removeMax();
+		assertEquals("Selected element after removeMax is not correct ", six, tree.select(5).getElement());
+		try {
+			tree.select(6);
+			fail("Select method failed to throw IndexOutOfBoundsException.");
+		} catch (IndexOutOfBoundsException e) {
+			assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#floor(Comparable)} and
+	 * {@link implementations.BSTree#ceiling(Comparable)}.
+	 */
+	@Test
+	public void testFloorCeiling() {
+		tree.add(four);
+		tree.add(two);
+		tree.add(six);
+
+		assertEquals("Floor is not correct ", two, tree.floor(three).getElement());
+		assertEquals("Floor is not correct ", four, tree.floor(four).getElement());
+		assertNull("Floor should not exist ", tree.floor(one));
+		assertEquals("Ceiling is not correct ", four, tree.ceiling(three).getElement());
+		assertEquals("Ceiling is not correct ", six, tree.ceiling(six).getElement());
+		assertNull("Ceiling should not exist ", tree.ceiling(seven));
+	}
+
+	/**
+	 * Test method for the range views of {@link implementations.BSTree}.
+	 */
+	@Test
+	public void testRangeIterators() {
+		tree.add(four);
+		tree.add(two);
+		tree.add(six);
+		tree.add(one);
+		tree.add(five);
+		tree.add(three);
+		tree.add(seven);
+
+		assertIteratesOver(new Integer[] { three, four, five }, tree.subSet(three, six));
+		assertIteratesOver(new Integer[] { one, two }, tree.headSet(three));
+		assertIteratesOver(new Integer[] { five, six, seven }, tree.tailSet(50));
+		assertIteratesOver(new Integer[] {}, tree.subSet(34, 40));
+		assertIteratesOver(new Integer[] { four, five }, tree.scan(40, i -> i < 60));
+	}
+
+	/**
+	 * Checks that the iterator returns exactly the expected elements in order.
+	 *
+	 * @param shouldBe the expected elements
+	 * @param it the iterator to drain
+	 */
+	private void assertIteratesOver(Integer[] shouldBe, Iterator<Integer> it) {
+		int i = 0;
+		while (it.hasNext()) {
+			assertTrue("Iterator returned too many elements ", i < shouldBe.length);
+			assertEquals("Iterator is out of order ", shouldBe[i++], it.next());
+		}
+		assertEquals("Iterator returned too few elements ", shouldBe.length, i);
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#buildFromSorted(java.util.List)}.
+	 */
+	@Test
+	public void testBuildFromSorted() {
+		java.util.List<Integer> sorted = new java.util.ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			sorted.add(i);
+		}
+		tree.add(-1);
+		tree.buildFromSorted(sorted);
+
+		assertEquals("Size of tree should be ", 1000, tree.size());
+		assertEquals("Height of tree is not correct ", 10, tree.getHeight());
+		assertEquals("Root of tree is not returned correctly ", 500, (int) tree.getRoot().getElement());
+		assertEquals("Selected element is not correct ", 999, (int) tree.select(999).getElement());
+		assertEquals("Rank of element is not correct ", 250, tree.rank(250));
+		assertTrue("Element was not found in the tree ", tree.contains(777));
+		assertFalse("Element found in the tree and should not ", tree.contains(-1));
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#buildFromSorted(java.util.List)}
+	 * with input that is not sorted.
+	 */
+	@Test
+	public void testBuildFromSortedForIllegalArgumentException() {
+		try {
+			tree.buildFromSorted(java.util.Arrays.asList(one, three, two));
+			fail("buildFromSorted method failed to throw IllegalArgumentException.");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#union(utilities.BSTreeADT, java.util.function.BinaryOperator)}.
+	 */
+	@Test
+	public void testUnion() {
+		tree.add(one);
+		tree.add(two);
+		tree.add(three);
+		tree.add(four);
+		BSTree<Integer> other = new BSTree<Integer>();
+		other.add(six);
+		other.add(three);
+		other.add(five);
+		other.add(seven);
+
+		final int[] combined = { 0 };
+		tree.union(other, (a, b) -> {
+			combined[0]++;
+			return a;
+		});
+
+		assertEquals("Combiner should be called once per shared element ", 1, combined[0]);
+		assertEquals("Size of tree should be ", 7, tree.size());
+		assertEquals("Height of tree is not correct ", 3, tree.getHeight());
+		assertEquals("Size of other tree should be ", 4, other.size());
+		assertIteratesOver(new Integer[] { one, two, three, four, five, six, seven }, tree.inorderIterator());
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#spliterator()}.
+	 */
+	@Test
+	public void testSpliterator() {
+		tree = new BSTree<Integer>(true);
+		for (int i = 1; i <= 100; i++) {
+			tree.add(i);
+		}
+		Spliterator<Integer> suffix = tree.spliterator();
+		assertEquals("Size estimate is not correct ", 100, suffix.getExactSizeIfKnown());
+		Spliterator<Integer> prefix = suffix.trySplit();
+		assertNotNull("Spliterator did not split ", prefix);
+		assertEquals("Sizes of the halves should add up ", 100, prefix.estimateSize() + suffix.estimateSize());
+
+		final int[] expected = { 1 };
+		prefix.forEachRemaining(element -> assertEquals("Prefix is out of order ", expected[0]++, (int) element));
+		suffix.forEachRemaining(element -> assertEquals("Suffix is out of order ", expected[0]++, (int) element));
+		assertEquals("Spliterators returned the wrong number of elements ", 101, expected[0]);
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#stream()} and
+	 * {@link implementations.BSTree#parallelStream()}.
+	 */
+	@Test
+	public void testStreams() {
+		for (int i = 1; i <= 1000; i++) {
+			tree.add((i * 7) % 1000);
+		}
+		assertEquals("Sum of the stream is not correct ", 499500, tree.stream().mapToInt(Integer::intValue).sum());
+		assertEquals("Sum of the parallel stream is not correct ", 499500,
+				tree.parallelStream().mapToInt(Integer::intValue).sum());
+		List<Integer> sorted = tree.parallelStream().filter(element -> element % 100 == 0).collect(Collectors.toList());
+		assertEquals("Parallel stream lost the order ", Arrays.asList(0, 100, 200, 300, 400, 500, 600, 700, 800, 900), sorted);
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#merge(Comparable, java.util.function.BiFunction)}.
+	 */
+	@Test
+	public void testMerge() {
+		tree.add(four);
+		tree.add(two);
+		assertEquals("New element was not returned ", six, tree.merge(six, (a, b) -> a));
+		assertEquals("Size of tree should be ", 3, tree.size());
+
+		Integer otherTwo = new Integer(22);
+		assertSame("Merged element was not returned ", otherTwo, tree.merge(two, (a, b) -> otherTwo));
+		assertSame("Merged element was not stored ", otherTwo, tree.search(two).getElement());
+		assertEquals("Size of tree should be ", 3, tree.size());
+	}
+
+	/**
+	 * Test method for a merge function that changes the key.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeForIllegalArgumentException() {
+		tree.add(one);
+		tree.merge(one, (a, b) -> seven);
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#addAll(java.util.Collection)}.
+	 */
+	@Test
+	public void testAddAll() {
+		assertTrue("Batch was not added ", tree.addAll(Arrays.asList(four, two, six, two)));
+		assertEquals("Size of tree should be ", 3, tree.size());
+
+		// A small batch is inserted one element at a time
+		tree = new BSTree<Integer>(true);
+		for (int i = 0; i < 1000; i += 2) {
+			tree.add(i);
+		}
+		assertTrue("Batch was not added ", tree.addAll(Arrays.asList(7, 3, 3, 998)));
+		assertEquals("Size of tree should be ", 502, tree.size());
+		assertFalse("Batch of existing elements changed the tree ", tree.addAll(Arrays.asList(0, 2, 4)));
+
+		// A large batch is merged and the tree rebuilt
+		List<Integer> odd = new ArrayList<Integer>();
+		for (int i = 999; i > 0; i -= 2) {
+			odd.add(i);
+		}
+		assertTrue("Batch was not added ", tree.addAll(odd));
+		assertEquals("Size of tree should be ", 1000, tree.size());
+		assertEquals("Height of tree is not correct ", 10, tree.getHeight());
+		for (int i = 0; i < 1000; i += 111) {
+			assertEquals("Selected element is not correct ", i, (int) tree.select(i).getElement());
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#enableStats()}.
+	 */
+	@Test
+	public void testStats() {
+		assertNull("Statistics should be disabled by default ", tree.getStats());
+		tree = new BSTree<Integer>(true);
+		TreeStats stats = tree.enableStats();
+		for (int i = 1; i <= 7; i++) {
+			tree.add(i);
+		}
+		tree.add(4);
+		tree.contains(7);
+		tree.contains(8);
+
+		assertEquals("Node count is not correct ", 7, stats.getNodeCount());
+		assertEquals("Insert count is not correct ", 8, stats.getInsertCount());
+		assertEquals("Search count is not correct ", 2, stats.getSearchCount());
+		assertEquals("Rotation count is not correct ", 4, stats.getRotationCount());
+		assertEquals("Comparisons of the searches are not correct ", 3.0, stats.getAverageSearchComparisons(), 0.0);
+		assertEquals("Depth histogram is not correct ", 4, stats.getDepthHistogram()[2]);
+
+		tree.disableStats();
+		tree.add(8);
+		assertEquals("Disabled statistics were updated ", 8, stats.getInsertCount());
+	}
+
+	/**
+	 * Test method for the statistics of the bulk operations that WordTracker
+	 * uses to merge the words of a file into the repository.
+	 */
+	@Test
+	public void testStatsOfIngestion() {
+		BSTree<Word> words = new BSTree<Word>(true);
+		TreeStats stats = words.enableStats();
+		ArrayList<Word> first = new ArrayList<Word>();
+		ArrayList<Word> second = new ArrayList<Word>();
+		for (int i = 0; i < 100; i++) {
+			first.add(new Word("word" + (1000 + 2 * i), "a.txt", i + 1));
+			second.add(new Word("word" + (1000 + 3 * i), "a.txt", i + 1));
+		}
+		WordTracker.mergeWords(words, first);
+		assertEquals("Insert count is not correct ", 100, stats.getInsertCount());
+		assertEquals("Comparisons of the inserts are not correct ", 0.99, stats.getAverageInsertComparisons(), 0.0);
+		WordTracker.mergeWords(words, second);
+
+		assertEquals("Node count is not correct ", 166, stats.getNodeCount());
+		assertEquals("Insert count is not correct ", 200, stats.getInsertCount());
+		assertEquals("Rebuild count is not correct ", 2, stats.getRebuildCount());
+		assertTrue("Comparisons were not counted ", stats.getComparisonCount() > 199);
+		long depths = 0;
+		for (long count : stats.getDepthHistogram()) {
+			depths += count;
+		}
+		assertEquals("Depth histogram is not correct ", 200, depths);
+		assertEquals("Depth histogram is not correct ", 1, stats.getDepthHistogram()[0]);
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#remove(Comparable)}.
+	 */
+	@Test
+	public void testRemove() {
+		tree = new BSTree<Integer>(true);
+		for (int i = 1; i <= 100; i++) {
+			tree.add(i);
+		}
+		assertEquals("Removed element is not correct ", 64, (int) tree.remove(64).getElement());
+		assertNull("Missing element was removed ", tree.remove(64));
+		for (int i = 1; i <= 100; i += 2) {
+			assertEquals("Removed element is not correct ", i, (int) tree.remove(i).getElement());
+		}
+		assertEquals("Size of tree should be ", 49, tree.size());
+		assertEquals("Height of tree is not correct ", 6, tree.getHeight());
+		assertFalse("Removed element was found in the tree ", tree.contains(31));
+		assertEquals("Rank of element is not correct ", 31, tree.rank(66));
+
+		tree.clear();
+		tree.add(one);
+		assertEquals("Removed root is not correct ", one, tree.remove(one).getElement());
+		assertTrue("Tree is not indicated as empty ", tree.isEmpty());
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#removeIf(java.util.function.Predicate)}.
+	 */
+	@Test
+	public void testRemoveIf() {
+		for (int i = 1; i <= 100; i++) {
+			tree.add(i);
+		}
+		assertFalse("Tree changed without a match ", tree.removeIf(element -> element > 100));
+		assertTrue("Matching elements were not removed ", tree.removeIf(element -> element % 3 != 0));
+		assertEquals("Size of tree should be ", 33, tree.size());
+		assertEquals("Height of tree is not correct ", 6, tree.getHeight());
+		assertEquals("Selected element is not correct ", 99, (int) tree.select(32).getElement());
+	}
+
+	/**
+	 * Test method for serializing a degenerate tree as its sorted elements.
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		for (int i = 1; i <= 2000; i++) {
+			tree.add(i);
+		}
+		assertEquals("Height of tree is not correct ", 2000, tree.getHeight());
+		java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);
+		out.writeObject(tree);
+		out.close();
+		java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()));
+		@SuppressWarnings("unchecked")
+		BSTree<Integer> copy = (BSTree<Integer>) in.readObject();
+		in.close();
+
+		assertEquals("Size of tree should be ", 2000, copy.size());
+		assertEquals("Read tree should be rebuilt balanced ", 11, copy.getHeight());
+		assertFalse("Read tree should not rebalance itself ", copy.isBalanced());
+		assertEquals("Selected element is not correct ", 1000, (int) copy.select(999).getElement());
+		assertTrue("Element not added ", copy.add(2001));
+	}
+
+	/**
+	 * Test method for reading a repository written by the first version of
+	 * WordTracker, which serialized the tree as a graph of nodes. It holds the
+	 * words of simpleTest.txt and otherTest.txt.
+	 */
+	@Test
+	public void testBaselineRepository() throws Exception {
+		java.io.ObjectInputStream in = new java.io.ObjectInputStream(getClass().getResourceAsStream("baseline-repository.ser"));
+		@SuppressWarnings("unchecked")
+		BSTree<Word> copy = (BSTree<Word>) in.readObject();
+		in.close();
+
+		assertEquals("Size of tree should be ", 23, copy.size());
+		assertEquals("Read tree should be rebuilt balanced ", 5, copy.getHeight());
+		assertFalse("Read tree should not rebalance itself ", copy.isBalanced());
+		assertEquals("Rank of element is not correct ", 2, copy.rank(new Word("again...", "otherTest.txt", 1)));
+		BSTreeNode<Word> kitty = copy.search(new Word("kitty", "simpleTest.txt", 1));
+		assertNotNull("Word was not found in the tree ", kitty);
+		assertEquals("Word read is not correct ", "===Kitty=== number of entries: 2 found in file: simpleTest.txt +  on lines: [1, 2]", kitty.getElement().toString());
+		Iterator<Word> it = copy.inorderIterator();
+		Word previous = it.next();
+		while (it.hasNext()) {
+			Word next = it.next();
+			assertTrue("Inorder iterator is out of order ", previous.compareTo(next) < 0);
+			previous = next;
+		}
+		assertTrue("Element not added ", copy.add(new Word("zebra", "otherTest.txt", 3)));
+	}
 }
@@ -0,0 +1,240 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.BSTreeNode;
+import implementations.ConcurrentBSTree;
+
+/**
+ * Class Description:
+ * Tests for the thread-safe ConcurrentBSTree implementation of the BSTreeADT.
+ */
+public class ConcurrentBSTreeTest {
+	// Attributes
+	private ConcurrentBSTree<Integer> tree;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new ConcurrentBSTree<Integer>();
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		tree = null;
+	}
+
+	/**
+	 * Test method for adding, searching and removing on a single thread.
+	 */
+	@Test
+	public void testSequentialOperations() {
+		assertTrue("Tree is not indicated as empty ", tree.isEmpty());
+		assertTrue("Element not added ", tree.add(44));
+		assertTrue("Element not added ", tree.add(22));
+		assertTrue("Element not added ", tree.add(66));
+		assertTrue("Element not added ", tree.add(11));
+		assertFalse("Duplicate was added ", tree.add(22));
+
+		assertEquals("Size of tree should be ", 4, tree.size());
+		assertEquals("Height of tree is not correct ", 3, tree.getHeight());
+		assertEquals("Root of tree is not returned correctly ", 44, (int) tree.getRoot().getElement());
+		assertTrue("Element was not found in the tree ", tree.contains(66));
+		assertNull("Element found in the tree and should not ", tree.search(33));
+		assertEquals("Rank of element is not correct ", 2, tree.rank(44));
+		assertEquals("Selected element is not correct ", 22, (int) tree.select(1).getElement());
+
+		assertEquals("Min was not returned correctly ", 11, (int) tree.removeMin().getElement());
+		assertEquals("Max was not returned correctly ", 66, (int) tree.removeMax().getElement());
+		assertEquals("Size of tree should be ", 2, tree.size());
+	}
+
+	/**
+	 * Test method for the three traversal orders.
+	 */
+	@Test
+	public void testIterators() {
+		int[] values = { 44, 22, 66, 11, 55, 33, 77 };
+		for (int value : values) {
+			tree.add(value);
+		}
+		assertIteratesOver(new int[] { 11, 22, 33, 44, 55, 66, 77 }, tree.inorderIterator());
+		assertIteratesOver(new int[] { 44, 22, 11, 33, 66, 55, 77 }, tree.preorderIterator());
+		assertIteratesOver(new int[] { 11, 33, 22, 55, 77, 66, 44 }, tree.postorderIterator());
+	}
+
+	/**
+	 * Test method for many threads adding overlapping ranges at the same time.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentAdd() throws InterruptedException {
+		final int threads = 8;
+		final int perThread = 5000;
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int t = 0; t < threads; t++) {
+			final int seed = t;
+			workers.add(new Thread(() -> {
+				java.util.Random random = new java.util.Random(seed);
+				for (int i = 0; i < perThread; i++) {
+					tree.add(random.nextInt(20000));
+					tree.contains(random.nextInt(20000));
+				}
+			}));
+		}
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		java.util.TreeSet<Integer> expected = new java.util.TreeSet<Integer>();
+		for (int t = 0; t < threads; t++) {
+			java.util.Random random = new java.util.Random(t);
+			for (int i = 0; i < perThread; i++) {
+				expected.add(random.nextInt(20000));
+				random.nextInt(20000);
+			}
+		}
+		assertEquals("Size of tree should be ", expected.size(), tree.size());
+		Iterator<Integer> it = tree.inorderIterator();
+		for (Integer value : expected) {
+			assertEquals("Inorder iterator is out of order ", value, it.next());
+		}
+		assertFalse("Inorder iterator returned too many elements ", it.hasNext());
+	}
+
+	/**
+	 * Test method for many threads merging into the same elements, checking
+	 * that the merge function is applied exactly once per call.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentMerge() throws InterruptedException {
+		final int threads = 8;
+		final int perThread = 20000;
+		final java.util.concurrent.atomic.AtomicInteger applied = new java.util.concurrent.atomic.AtomicInteger();
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int t = 0; t < threads; t++) {
+			workers.add(new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					tree.merge(i % 16, (stored, entry) -> {
+						applied.incrementAndGet();
+						return stored;
+					});
+				}
+			}));
+		}
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals("Size of tree should be ", 16, tree.size());
+		assertEquals("Merge function was not applied once per merge ", threads * perThread - 16, applied.get());
+	}
+
+	/**
+	 * Test method for removing elements while other threads add to the tree.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentAddAndRemove() throws InterruptedException {
+		final int threads = 4;
+		final int perThread = 5000;
+		final List<Integer> removed = java.util.Collections.synchronizedList(new ArrayList<Integer>());
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int t = 0; t < threads; t++) {
+			final int offset = t;
+			workers.add(new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					tree.add(i * threads + offset);
+				}
+			}));
+		}
+		workers.add(new Thread(() -> {
+			for (int i = 0; i < perThread; i++) {
+				BSTreeNode<Integer> node = i % 2 == 0 ? tree.removeMin() : tree.removeMax();
+				if (node != null) {
+					removed.add(node.getElement());
+				}
+			}
+		}));
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		java.util.TreeSet<Integer> remaining = new java.util.TreeSet<Integer>();
+		Iterator<Integer> it = tree.inorderIterator();
+		while (it.hasNext()) {
+			assertTrue("Element is in the tree twice ", remaining.add(it.next()));
+		}
+		assertEquals("Size of tree should be ", remaining.size(), tree.size());
+		for (Integer value : removed) {
+			assertFalse("Removed element is still in the tree ", remaining.contains(value));
+		}
+		assertEquals("Elements were lost ", threads * perThread, remaining.size() + new java.util.HashSet<Integer>(removed).size());
+		assertEquals("Element was removed twice ", removed.size(), new java.util.HashSet<Integer>(removed).size());
+	}
+
+	/**
+	 * Test method for writing a tree to a stream and reading it back.
+	 *
+	 * @throws Exception if serialization fails
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSerialization() throws Exception {
+		for (int i = 1; i <= 7; i++) {
+			tree.add(i);
+		}
+		java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);
+		out.writeObject(tree);
+		out.close();
+		java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()));
+		ConcurrentBSTree<Integer> copy = (ConcurrentBSTree<Integer>) in.readObject();
+
+		assertEquals("Size of tree should be ", 7, copy.size());
+		assertEquals("Height of tree is not correct ", 3, copy.getHeight());
+		assertIteratesOver(new int[] { 1, 2, 3, 4, 5, 6, 7 }, copy.inorderIterator());
+		assertTrue("Element not added ", copy.add(8));
+	}
+
+	/**
+	 * Checks that the iterator returns exactly the expected elements in order.
+	 *
+	 * @param shouldBe the expected elements
+	 * @param it the iterator to drain
+	 */
+	private void assertIteratesOver(int[] shouldBe, Iterator<Integer> it) {
+		int i = 0;
+		while (it.hasNext()) {
+			assertTrue("Iterator returned too many elements ", i < shouldBe.length);
+			assertEquals("Iterator is out of order ", shouldBe[i++], (int) it.next());
+		}
+		assertEquals("Iterator returned too few elements ", shouldBe.length, i);
+	}
+}
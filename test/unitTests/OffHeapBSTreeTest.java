@@ -0,0 +1,202 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.ElementCodec;
+import utilities.Iterator;
+
+import appDomain.Word;
+import appDomain.WordCodec;
+import implementations.OffHeapBSTree;
+
+/**
+ * Class Description:
+ * Tests for the OffHeapBSTree implementation of the BSTreeADT, which keeps its
+ * nodes in direct buffers.
+ */
+public class OffHeapBSTreeTest {
+	// Attributes
+	private OffHeapBSTree<Integer> tree;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new OffHeapBSTree<Integer>(new IntegerCodec(), 256);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		tree.close();
+		tree = null;
+	}
+
+	/**
+	 * Test method for adding sorted input across many chunks.
+	 */
+	@Test
+	public void testAddSortedInput() {
+		for (int i = 1; i <= 1023; i++) {
+			assertTrue("Element not added ", tree.add(i));
+		}
+		assertFalse("Duplicate was added ", tree.add(512));
+		assertEquals("Size of tree should be ", 1023, tree.size());
+		assertEquals("Height of tree is not correct ", 10, tree.getHeight());
+		assertTrue("Element was not found in the tree ", tree.contains(700));
+		assertNull("Element found in the tree and should not ", tree.search(0));
+		assertEquals("Rank of element is not correct ", 99, tree.rank(100));
+		assertEquals("Selected element is not correct ", 100, (int) tree.select(99).getElement());
+	}
+
+	/**
+	 * Test method for removing elements and compacting the freed space.
+	 */
+	@Test
+	public void testRemoveAndCompact() {
+		int[] values = { 44, 22, 66, 11, 55, 33, 77 };
+		for (int value : values) {
+			tree.add(value);
+		}
+		assertIteratesOver(new int[] { 44, 22, 11, 33, 66, 55, 77 }, tree.preorderIterator());
+		assertIteratesOver(new int[] { 11, 33, 22, 55, 77, 66, 44 }, tree.postorderIterator());
+
+		assertEquals("Min was not returned correctly ", 11, (int) tree.removeMin().getElement());
+		assertEquals("Max was not returned correctly ", 77, (int) tree.removeMax().getElement());
+		assertTrue("Removed records should still use memory ", tree.getLiveBytes() < tree.getUsedBytes());
+
+		tree.compact();
+		assertEquals("Compaction should release removed records ", tree.getLiveBytes(), tree.getUsedBytes());
+		assertIteratesOver(new int[] { 22, 33, 44, 55, 66 }, tree.inorderIterator());
+		assertEquals("Root of compacted tree is not correct ", 44, (int) tree.getRoot().getElement());
+
+		tree.clear();
+		assertTrue("Tree is not indicated as empty ", tree.isEmpty());
+		assertNull("Min was not returned correctly ", tree.removeMin());
+	}
+
+	/**
+	 * Test method for using a tree after it has been closed.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testClosed() {
+		tree.add(1);
+		tree.close();
+		tree.contains(1);
+	}
+
+	/**
+	 * Test method for storing words and serializing the tree.
+	 */
+	@Test
+	public void testWordsAndSerialization() throws Exception {
+		OffHeapBSTree<Word> words = new OffHeapBSTree<Word>(new WordCodec());
+		Word apple = new Word("Apple", "a.txt", 3);
+		apple.mergeWith(new Word("apple", "a.txt", 70000));
+		words.add(apple);
+		words.add(new Word("banana", "a.txt", 1));
+		words.add(new Word("apple", "b.txt", 2));
+
+		assertNotNull("Word was not found with a different case ", words.search(new Word("APPLE", "a.txt", 0)));
+		assertNull("Word found in the wrong file ", words.search(new Word("apple", "c.txt", 0)));
+		Word found = words.search(new Word("apple", "a.txt", 0)).getElement();
+		assertEquals("Word was not decoded correctly ", apple.toString(), found.toString());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(words);
+		out.close();
+		words.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		@SuppressWarnings("unchecked")
+		OffHeapBSTree<Word> copy = (OffHeapBSTree<Word>) in.readObject();
+		in.close();
+		assertEquals("Size of tree should be ", 3, copy.size());
+		assertEquals("Word order is not correct ", "b.txt", copy.select(1).getElement().getFilename());
+		copy.close();
+	}
+
+	/**
+	 * Test method for merging words whose encoding grows.
+	 */
+	@Test
+	public void testMergeWords() {
+		OffHeapBSTree<Word> words = new OffHeapBSTree<Word>(new WordCodec(), 256);
+		for (int i = 0; i < 20; i++) {
+			words.add(new Word("word" + i, "a.txt", 1));
+		}
+		for (int line = 2; line <= 40; line++) {
+			Word merged = words.merge(new Word("word7", "a.txt", line), Word::mergeWith);
+			assertEquals("Merged frequency is not correct ", line, merged.getFrequency());
+		}
+		assertEquals("Size of tree should be ", 20, words.size());
+		assertEquals("Stored frequency is not correct ", 40, words.search(new Word("word7", "a.txt", 0)).getElement().getFrequency());
+		assertTrue("Relocated records should leave garbage ", words.getLiveBytes() < words.getUsedBytes());
+
+		words.compact();
+		assertEquals("Stored frequency is not correct ", 40, words.search(new Word("word7", "a.txt", 0)).getElement().getFrequency());
+
+		for (int line = 41; line <= 2000; line++) {
+			words.merge(new Word("word3", "a.txt", line * 100), Word::mergeWith);
+			assertTrue("Garbage should be compacted automatically ", words.getUsedBytes() - words.getLiveBytes() <= Math.max(256, words.getLiveBytes()));
+		}
+		assertEquals("Stored frequency is not correct ", 1961, words.search(new Word("word3", "a.txt", 0)).getElement().getFrequency());
+		assertEquals("Size of tree should be ", 20, words.size());
+		words.close();
+	}
+
+	/**
+	 * Checks that the iterator returns exactly the expected elements in order.
+	 *
+	 * @param shouldBe the expected elements
+	 * @param it the iterator to drain
+	 */
+	private void assertIteratesOver(int[] shouldBe, Iterator<Integer> it) {
+		int i = 0;
+		while (it.hasNext()) {
+			assertTrue("Iterator returned too many elements ", i < shouldBe.length);
+			assertEquals("Iterator is out of order ", shouldBe[i++], (int) it.next());
+		}
+		assertEquals("Iterator returned too few elements ", shouldBe.length, i);
+	}
+
+	/**
+	 * Stores an Integer as four bytes.
+	 */
+	private static class IntegerCodec implements ElementCodec<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int encodedSize(Integer element) {
+			return Integer.BYTES;
+		}
+
+		@Override
+		public void encode(Integer element, ByteBuffer buffer) {
+			buffer.putInt(element);
+		}
+
+		@Override
+		public Integer decode(ByteBuffer buffer) {
+			return buffer.getInt();
+		}
+
+		@Override
+		public int compare(Integer entry, ByteBuffer buffer, int offset) {
+			return Integer.compare(entry, buffer.getInt(offset));
+		}
+	}
+}
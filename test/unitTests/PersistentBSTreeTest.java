@@ -0,0 +1,113 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.PersistentBSTree;
+
+/**
+ * Class Description:
+ * Tests for the path-copying PersistentBSTree implementation of the BSTreeADT.
+ */
+public class PersistentBSTreeTest {
+	// Attributes
+	private PersistentBSTree<Integer> tree;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new PersistentBSTree<Integer>();
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		tree = null;
+	}
+
+	/**
+	 * Test method for the basic operations on sorted input.
+	 */
+	@Test
+	public void testBalancedOperations() {
+		for (int i = 1; i <= 1023; i++) {
+			assertTrue("Element not added ", tree.add(i));
+		}
+		assertFalse("Duplicate was added ", tree.add(512));
+		assertEquals("Size of tree should be ", 1023, tree.size());
+		assertEquals("Height of tree is not correct ", 10, tree.getHeight());
+		assertTrue("Element was not found in the tree ", tree.contains(700));
+		assertEquals("Rank of element is not correct ", 99, tree.rank(100));
+		assertEquals("Selected element is not correct ", 100, (int) tree.select(99).getElement());
+		assertEquals("Min was not returned correctly ", 1, (int) tree.removeMin().getElement());
+		assertEquals("Max was not returned correctly ", 1023, (int) tree.removeMax().getElement());
+		assertEquals("Size of tree should be ", 1021, tree.size());
+	}
+
+	/**
+	 * Test method for {@link implementations.PersistentBSTree#snapshot()}.
+	 */
+	@Test
+	public void testSnapshotIsIsolated() {
+		tree.add(44);
+		tree.add(22);
+		tree.add(66);
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+
+		tree.add(11);
+		tree.removeMax();
+		snapshot.add(55);
+
+		assertIteratesOver(new int[] { 11, 22, 44 }, tree.inorderIterator());
+		assertIteratesOver(new int[] { 22, 44, 55, 66 }, snapshot.inorderIterator());
+		assertIteratesOver(new int[] { 44, 22, 66, 55 }, snapshot.preorderIterator());
+		assertIteratesOver(new int[] { 22, 55, 66, 44 }, snapshot.postorderIterator());
+	}
+
+	/**
+	 * Test method for serializing a snapshot on its own.
+	 *
+	 * @throws Exception if serialization fails
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSnapshotSerialization() throws Exception {
+		for (int i = 1; i <= 7; i++) {
+			tree.add(i);
+		}
+		java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);
+		out.writeObject(tree.snapshot());
+		out.close();
+		tree.clear();
+		java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()));
+		PersistentBSTree<Integer> copy = (PersistentBSTree<Integer>) in.readObject();
+
+		assertTrue("Tree is not indicated as empty ", tree.isEmpty());
+		assertIteratesOver(new int[] { 1, 2, 3, 4, 5, 6, 7 }, copy.inorderIterator());
+	}
+
+	/**
+	 * Checks that the iterator returns exactly the expected elements in order.
+	 *
+	 * @param shouldBe the expected elements
+	 * @param it the iterator to drain
+	 */
+	private void assertIteratesOver(int[] shouldBe, Iterator<Integer> it) {
+		int i = 0;
+		while (it.hasNext()) {
+			assertTrue("Iterator returned too many elements ", i < shouldBe.length);
+			assertEquals("Iterator is out of order ", shouldBe[i++], (int) it.next());
+		}
+		assertEquals("Iterator returned too few elements ", shouldBe.length, i);
+	}
+}
@@ -0,0 +1,92 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.PooledBSTree;
+
+/**
+ * Class Description:
+ * Tests for the array-pooled PooledBSTree implementation of the BSTreeADT.
+ */
+public class PooledBSTreeTest {
+	// Attributes
+	private PooledBSTree<Integer> tree;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new PooledBSTree<Integer>(2);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		tree = null;
+	}
+
+	/**
+	 * Test method for growing the pool with sorted input.
+	 */
+	@Test
+	public void testAddSortedInput() {
+		for (int i = 1; i <= 1023; i++) {
+			assertTrue("Element not added ", tree.add(i));
+		}
+		assertFalse("Duplicate was added ", tree.add(512));
+		assertEquals("Size of tree should be ", 1023, tree.size());
+		assertEquals("Height of tree is not correct ", 10, tree.getHeight());
+		assertTrue("Element was not found in the tree ", tree.contains(700));
+		assertNull("Element found in the tree and should not ", tree.search(0));
+		assertEquals("Rank of element is not correct ", 99, tree.rank(100));
+		assertEquals("Selected element is not correct ", 100, (int) tree.select(99).getElement());
+	}
+
+	/**
+	 * Test method for removing elements and reusing their slots.
+	 */
+	@Test
+	public void testRemoveAndReuse() {
+		int[] values = { 44, 22, 66, 11, 55, 33, 77 };
+		for (int value : values) {
+			tree.add(value);
+		}
+		assertIteratesOver(new int[] { 44, 22, 11, 33, 66, 55, 77 }, tree.preorderIterator());
+		assertIteratesOver(new int[] { 11, 33, 22, 55, 77, 66, 44 }, tree.postorderIterator());
+
+		assertEquals("Min was not returned correctly ", 11, (int) tree.removeMin().getElement());
+		assertEquals("Max was not returned correctly ", 77, (int) tree.removeMax().getElement());
+		tree.add(5);
+		tree.add(99);
+		assertIteratesOver(new int[] { 5, 22, 33, 44, 55, 66, 99 }, tree.inorderIterator());
+		assertEquals("Size of tree should be ", 7, tree.size());
+
+		tree.clear();
+		assertTrue("Tree is not indicated as empty ", tree.isEmpty());
+		assertNull("Min was not returned correctly ", tree.removeMin());
+	}
+
+	/**
+	 * Checks that the iterator returns exactly the expected elements in order.
+	 *
+	 * @param shouldBe the expected elements
+	 * @param it the iterator to drain
+	 */
+	private void assertIteratesOver(int[] shouldBe, Iterator<Integer> it) {
+		int i = 0;
+		while (it.hasNext()) {
+			assertTrue("Iterator returned too many elements ", i < shouldBe.length);
+			assertEquals("Iterator is out of order ", shouldBe[i++], (int) it.next());
+		}
+		assertEquals("Iterator returned too few elements ", shouldBe.length, i);
+	}
+}
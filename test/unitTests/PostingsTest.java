@@ -0,0 +1,191 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.Postings;
+
+/**
+ * Class Description:
+ * Tests for the Postings list of line numbers kept by each word.
+ */
+public class PostingsTest {
+	// Attributes
+	private Postings postings;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		postings = new Postings(1);
+	}
+
+	/**
+	 * Test method for adding lines, including repeated ones.
+	 */
+	@Test
+	public void testAdd() {
+		postings.add(1);
+		postings.add(3);
+		postings.add(3);
+		postings.add(200);
+		assertEquals("Size of postings should be ", 3, postings.size());
+		assertEquals("Postings are not correct ", "[1, 3, 200]", postings.toString());
+	}
+
+	/**
+	 * Test method for adding a line out of order.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddForIllegalArgumentException() {
+		postings.add(5);
+		postings.add(4);
+	}
+
+	/**
+	 * Test method for the compact form of sparse lines.
+	 */
+	@Test
+	public void testCompact() {
+		for (int line = 100; line <= 100000; line += 100) {
+			postings.add(line);
+		}
+		postings.compact();
+		assertTrue("Postings should be compact ", postings.isCompact());
+		assertFalse("Sparse postings should not be a bitmap ", postings.isBitmap());
+		assertEquals("Compact postings should encode a byte per line ", 1008, postings.encodedSize());
+		postings.add(100000);
+		postings.add(1000000);
+		assertEquals("Size of postings should be ", 1002, postings.size());
+		int[] lines = postings.toArray();
+		assertEquals("Line is not correct ", 50000, lines[500]);
+		assertEquals("Line is not correct ", 1000000, lines[1001]);
+	}
+
+	/**
+	 * Test method for switching dense lines to a bitmap.
+	 */
+	@Test
+	public void testBitmap() {
+		for (int line = 2; line <= 1000; line++) {
+			postings.add(line);
+		}
+		assertTrue("Dense postings should become a bitmap ", postings.isBitmap());
+		assertEquals("Bitmap should use a bit per line ", 3 + 16 * Long.BYTES, postings.encodedSize());
+		postings.add(1000);
+		postings.add(5000);
+		assertEquals("Size of postings should be ", 1001, postings.size());
+		int[] lines = postings.toArray();
+		assertEquals("Line is not correct ", 500, lines[499]);
+		assertEquals("Line is not correct ", 5000, lines[1000]);
+		postings.compact();
+		assertTrue("Compacted postings should stay a bitmap ", postings.isBitmap());
+	}
+
+	/**
+	 * Test method for a line far beyond the others, which starts a chunk of
+	 * its own instead of stretching the bitmap.
+	 */
+	@Test
+	public void testFarLine() {
+		for (int line = 2; line <= 1000; line++) {
+			postings.add(line);
+		}
+		postings.add(10000000);
+		postings.compact();
+		assertTrue("Dense postings should stay a bitmap ", postings.isBitmap());
+		assertTrue("Far line should not stretch the bitmap ", postings.encodedSize() < 16 * Long.BYTES + 16);
+		assertEquals("Size of postings should be ", 1001, postings.size());
+		assertEquals("Line is not correct ", 10000000, postings.toArray()[1000]);
+		Postings other = new Postings(1000);
+		other.add(10000000);
+		other.add(20000000);
+		assertEquals("Intersection is not correct ", "[1000, 10000000]", postings.intersect(other).toString());
+		assertEquals("Size of union should be ", 1002, postings.union(other).size());
+		assertTrue("Union should not stretch the bitmap ", postings.union(other).encodedSize() < 16 * Long.BYTES + 32);
+	}
+
+	/**
+	 * Test method for the union of two posting lists.
+	 */
+	@Test
+	public void testUnion() {
+		postings.add(400);
+		postings.add(900);
+		Postings other = new Postings(200);
+		other.add(400);
+		other.add(1000);
+		other.compact();
+		assertEquals("Union is not correct ", "[1, 200, 400, 900, 1000]", postings.union(other).toString());
+		assertTrue("Union should be compact ", postings.union(other).isCompact());
+		assertFalse("Postings should not be compact after adding ", postings.isCompact());
+	}
+
+	/**
+	 * Test method for the intersection of two posting lists.
+	 */
+	@Test
+	public void testIntersect() {
+		Postings even = new Postings();
+		Postings third = new Postings();
+		for (int line = 0; line <= 600; line++) {
+			if (line % 2 == 0) {
+				even.add(line);
+			}
+			if (line % 3 == 0) {
+				third.add(line);
+			}
+		}
+		assertTrue("Dense postings should become a bitmap ", even.isBitmap() && third.isBitmap());
+		Postings sixth = even.intersect(third);
+		assertEquals("Size of intersection should be ", 101, sixth.size());
+		assertEquals("Union is not correct ", 401, even.union(third).size());
+		postings.add(6);
+		postings.add(7);
+		postings.add(600);
+		assertEquals("Intersection is not correct ", "[6, 600]", postings.intersect(sixth).toString());
+		assertEquals("Intersection is not correct ", "[6, 600]", sixth.intersect(postings).toString());
+		assertEquals("Intersection is not correct ", "[]", postings.intersect(new Postings(2)).toString());
+	}
+
+	/**
+	 * Test method for encoding and serializing postings.
+	 */
+	@Test
+	public void testEncodingAndSerialization() throws Exception {
+		postings.add(130);
+		postings.add(70000);
+		Postings dense = new Postings();
+		for (int line = 1; line <= 300; line++) {
+			dense.add(line);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(postings.encodedSize());
+		postings.encode(buffer);
+		assertFalse("Encoded size is not correct ", buffer.hasRemaining());
+		buffer.flip();
+		assertEquals("Decoded postings are not correct ", "[1, 130, 70000]", Postings.decode(buffer).toString());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(postings);
+		out.writeObject(dense);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Postings copy = (Postings) in.readObject();
+		Postings denseCopy = (Postings) in.readObject();
+		in.close();
+		assertEquals("Serialized bitmap is not correct ", dense.toString(), denseCopy.toString());
+		assertEquals("Serialized postings are not correct ", "[1, 130, 70000]", copy.toString());
+		copy.add(70001);
+		assertEquals("Size of postings should be ", 4, copy.size());
+	}
+}
@@ -0,0 +1,108 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.SplayTree;
+
+/**
+ * Class Description:
+ * Tests for the self-adjusting SplayTree implementation of the BSTreeADT.
+ */
+public class SplayTreeTest {
+	// Attributes
+	private SplayTree<Integer> tree;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new SplayTree<Integer>();
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		tree = null;
+	}
+
+	/**
+	 * Test method for moving accessed elements to the root.
+	 */
+	@Test
+	public void testAccessSplaysToRoot() {
+		for (int i = 1; i <= 1000; i++) {
+			assertTrue("Element not added ", tree.add(i));
+			assertEquals("Added element is not the root ", i, (int) tree.getRoot().getElement());
+		}
+		assertEquals("Sorted input should leave a path ", 1000, tree.getHeight());
+
+		assertTrue("Element was not found in the tree ", tree.contains(1));
+		assertEquals("Found element is not the root ", 1, (int) tree.getRoot().getElement());
+		assertTrue("Splaying the deepest node should roughly halve the height ", tree.getHeight() < 510);
+
+		assertFalse("Duplicate was added ", tree.add(500));
+		assertEquals("Duplicate is not the root ", 500, (int) tree.getRoot().getElement());
+		assertNull("Element found in the tree and should not ", tree.search(1001));
+		assertEquals("Last node reached is not the root ", 1000, (int) tree.getRoot().getElement());
+		assertEquals("Size of tree should be ", 1000, tree.size());
+	}
+
+	/**
+	 * Test method for rank and select keeping sizes correct while splaying.
+	 */
+	@Test
+	public void testRankAndSelect() {
+		for (int i = 0; i < 100; i++) {
+			tree.add((i * 37) % 100);
+		}
+		for (int i = 0; i < 100; i += 7) {
+			assertEquals("Rank of element is not correct ", i, tree.rank(i));
+			assertEquals("Selected element is not correct ", i, (int) tree.select(i).getElement());
+		}
+		assertEquals("Rank of missing element is not correct ", 100, tree.rank(1000));
+	}
+
+	/**
+	 * Test method for removing the minimum and maximum elements.
+	 */
+	@Test
+	public void testRemoveMinAndMax() {
+		int[] values = { 44, 22, 66, 11, 55, 33, 77 };
+		for (int value : values) {
+			tree.add(value);
+		}
+		assertEquals("Min was not returned correctly ", 11, (int) tree.removeMin().getElement());
+		assertEquals("Max was not returned correctly ", 77, (int) tree.removeMax().getElement());
+		assertIteratesOver(new int[] { 22, 33, 44, 55, 66 }, tree.inorderIterator());
+		assertEquals("Size of tree should be ", 5, tree.size());
+
+		tree.clear();
+		assertTrue("Tree is not indicated as empty ", tree.isEmpty());
+		assertNull("Min was not returned correctly ", tree.removeMin());
+		assertNull("Max was not returned correctly ", tree.removeMax());
+	}
+
+	/**
+	 * Checks that the iterator returns exactly the expected elements in order.
+	 *
+	 * @param shouldBe the expected elements
+	 * @param it the iterator to drain
+	 */
+	private void assertIteratesOver(int[] shouldBe, Iterator<Integer> it) {
+		int i = 0;
+		while (it.hasNext()) {
+			assertTrue("Iterator returned too many elements ", i < shouldBe.length);
+			assertEquals("Iterator is out of order ", shouldBe[i++], (int) it.next());
+		}
+		assertEquals("Iterator returned too few elements ", shouldBe.length, i);
+	}
+}
@@ -0,0 +1,76 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+import appDomain.SymbolTable;
+import appDomain.Word;
+
+/**
+ * Class Description:
+ * Tests for the SymbolTable that interns the words and filenames of Words.
+ */
+public class SymbolTableTest {
+
+	/**
+	 * Test method for interning strings.
+	 */
+	@Test
+	public void testIntern() {
+		SymbolTable symbols = new SymbolTable();
+		assertEquals("First identifier is not correct ", 0, symbols.intern("apple"));
+		assertEquals("Second identifier is not correct ", 1, symbols.intern("a.txt"));
+		assertEquals("Interned string got a new identifier ", 0, symbols.intern(new String("apple")));
+		assertEquals("Size of table should be ", 2, symbols.size());
+		assertEquals("String is not correct ", "a.txt", symbols.get(1));
+	}
+
+	/**
+	 * Test method for words sharing the strings of a table, and for words
+	 * that are created without one.
+	 */
+	@Test
+	public void testSharedWords() {
+		SymbolTable symbols = new SymbolTable();
+		Word first = new Word(new String("Apple"), new String("shared.txt"), 1, symbols);
+		Word second = new Word(new String("apple"), new String("shared.txt"), 2, symbols);
+		assertSame("Filename is not shared ", first.getFilename(), second.getFilename());
+		assertEquals("Words should compare equal ", 0, first.compareTo(second));
+		assertEquals("Size of table should be ", 3, symbols.size());
+
+		Word probe = new Word("APPLE", "shared.txt", 0);
+		assertEquals("Words should compare equal ", 0, probe.compareTo(first));
+		assertEquals("Words should compare equal ", 0, second.compareTo(probe));
+		assertTrue("Words should be ordered by lower case form ", new Word("Banana", "a.txt", 0).compareTo(first) > 0);
+		assertEquals("Word without a table was interned ", 3, symbols.size());
+	}
+
+	/**
+	 * Test method for serializing words with their identifiers.
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		SymbolTable symbols = new SymbolTable();
+		Word[] words = { new Word("Pear", "b.txt", 3, symbols), new Word("plum", "b.txt", 4, symbols), new Word("Fig", "c.txt", 5) };
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(words);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Word[] copy = (Word[]) in.readObject();
+		in.close();
+		for (int i = 0; i < words.length; i++) {
+			assertEquals("Word was not read correctly ", words[i].toString(), copy[i].toString());
+			assertEquals("Words should compare equal ", 0, words[i].compareTo(copy[i]));
+		}
+		assertSame("Filename is not shared ", copy[0].getFilename(), copy[1].getFilename());
+		assertEquals("Size of table should be ", 4, symbols.size());
+		assertTrue("Words should be ordered by lower case form ", copy[0].compareTo(copy[1]) < 0);
+	}
+}
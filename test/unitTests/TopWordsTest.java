@@ -0,0 +1,188 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.SymbolTable;
+import appDomain.TopWords;
+import appDomain.Word;
+
+/**
+ * Class Description:
+ * Tests for the TopWords rankings of the most frequent words.
+ */
+public class TopWordsTest {
+	// Attributes
+	private SymbolTable symbols;
+	private TopWords topWords;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		symbols = new SymbolTable();
+		topWords = new TopWords(symbols);
+	}
+
+	/**
+	 * Test method for the rankings over all files and within each file.
+	 */
+	@Test
+	public void testRankings() {
+		topWords.record(word("apple", "a.txt", 3));
+		topWords.record(word("pear", "a.txt", 5));
+		topWords.record(word("plum", "a.txt", 1));
+		topWords.record(word("apple", "b.txt", 4));
+		topWords.record(word("Plum", "b.txt", 2));
+
+		List<TopWords.Entry> top = topWords.top(5);
+		assertEquals("Size of overall ranking should be ", 3, top.size());
+		assertEquals("Most frequent word is not correct ", "apple", top.get(0).getWord());
+		assertEquals("Frequency should be summed over files ", 7, top.get(0).getFrequency());
+		assertEquals("Second word is not correct ", "pear", top.get(1).getWord());
+		assertEquals("Words should be grouped without regard to case ", 3, top.get(2).getFrequency());
+		assertEquals("Word should keep the spelling it was first recorded with ", "plum", top.get(2).getWord());
+		assertEquals("Ranking should be cut to the count ", 2, topWords.top(2).size());
+
+		List<TopWords.Entry> file = topWords.top("b.txt", 5);
+		assertEquals("Size of file ranking should be ", 2, file.size());
+		assertEquals("Most frequent word of the file is not correct ", "apple", file.get(0).getWord());
+		assertEquals("Frequency within the file is not correct ", 4, file.get(0).getFrequency());
+		assertEquals("Spelling within the file is not correct ", "Plum", file.get(1).getWord());
+		assertEquals("Most frequent word of the file is not correct ", "pear", topWords.top("a.txt", 1).get(0).getWord());
+		assertTrue("Unknown file should have no ranking ", topWords.top("c.txt", 5).isEmpty());
+		assertEquals("Entry is not formatted correctly ", "Key: ===apple=== number of entries: 7", top.get(0).toString());
+	}
+
+	/**
+	 * Test method for words with the same frequency, which are ranked
+	 * alphabetically without regard to case.
+	 */
+	@Test
+	public void testTies() {
+		topWords.record(word("pear", "a.txt", 2));
+		topWords.record(word("Banana", "a.txt", 2));
+		topWords.record(word("apple", "a.txt", 2));
+		topWords.record(word("cherry", "a.txt", 3));
+		topWords.record(word("apple", "a.txt", 1));
+
+		List<TopWords.Entry> top = topWords.top(5);
+		assertEquals("Size of ranking should be ", 4, top.size());
+		assertEquals("Most frequent word is not correct ", "apple", top.get(0).getWord());
+		assertEquals("Tied word is not correct ", "cherry", top.get(1).getWord());
+		assertEquals("Tied words should be ranked alphabetically ", "Banana", top.get(2).getWord());
+		assertEquals("Tied words should be ranked alphabetically ", "pear", top.get(3).getWord());
+		assertEquals("Most frequent word is not correct ", "apple", topWords.top("a.txt", 1).get(0).getWord());
+	}
+
+	/**
+	 * Test method for writing the rankings with the words of the repository
+	 * and reading them back, which keeps a single table.
+	 *
+	 * @throws Exception if serialization fails
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		Word apple = new Word("Apple", "a.txt", 1, symbols);
+		apple.increaseFrequency();
+		topWords.record(apple);
+		topWords.record(word("pear", "a.txt", 1));
+		topWords.record(word("apple", "b.txt", 2));
+		int size = symbols.size();
+
+		java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes);
+		out.writeObject(apple);
+		out.writeObject(topWords);
+		out.close();
+		java.io.ObjectInputStream in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray()));
+		in.readObject();
+		TopWords copy = (TopWords) in.readObject();
+		in.close();
+
+		assertEquals("Each string should be in the table once ", 5, size);
+		List<TopWords.Entry> top = copy.top(5);
+		assertEquals("Size of overall ranking should be ", 2, top.size());
+		assertEquals("Most frequent word is not correct ", "Apple", top.get(0).getWord());
+		assertEquals("Overall frequency is not correct ", 4, top.get(0).getFrequency());
+		assertEquals("File ranking is not correct ", 2, copy.top("b.txt", 5).get(0).getFrequency());
+		copy.record(word("pear", "b.txt", 5));
+		assertEquals("Read rankings should still record words ", "pear", copy.top(1).get(0).getWord());
+	}
+
+	/**
+	 * Test method for asking for no words.
+	 */
+	@Test
+	public void testZeroCount() {
+		topWords.record(word("apple", "a.txt", 3));
+		assertTrue("No words should be returned ", topWords.top(0).isEmpty());
+		assertTrue("No words should be returned ", topWords.top("a.txt", 0).isEmpty());
+	}
+
+	/**
+	 * Test method for asking for a negative number of words.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testTopForIllegalArgumentException() {
+		topWords.record(word("apple", "a.txt", 3));
+		topWords.top(-1);
+	}
+
+	/**
+	 * Test method for asking for a negative number of words of a file.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testFileTopForIllegalArgumentException() {
+		topWords.record(word("apple", "a.txt", 3));
+		topWords.top("a.txt", -1);
+	}
+
+	/**
+	 * Test method for forgetting a file, which takes its occurrences out of
+	 * the overall ranking and returns its words.
+	 */
+	@Test
+	public void testEvict() {
+		topWords.record(word("apple", "a.txt", 3));
+		topWords.record(word("pear", "a.txt", 1));
+		topWords.record(word("apple", "b.txt", 1));
+		topWords.record(word("plum", "b.txt", 2));
+
+		List<String> evicted = topWords.evict("a.txt");
+		assertEquals("Evicted words are not correct ", 2, evicted.size());
+		assertTrue("Evicted words are not correct ", evicted.contains("apple") && evicted.contains("pear"));
+		assertTrue("Evicted file should have no ranking ", topWords.top("a.txt", 5).isEmpty());
+
+		List<TopWords.Entry> top = topWords.top(5);
+		assertEquals("Size of overall ranking should be ", 2, top.size());
+		assertEquals("Most frequent word is not correct ", "plum", top.get(0).getWord());
+		assertEquals("Frequency of remaining word is not correct ", 1, top.get(1).getFrequency());
+		assertTrue("Evicting an unknown file should return no words ", topWords.evict("c.txt").isEmpty());
+
+		topWords.record(word("pear", "a.txt", 4));
+		assertEquals("Re-recorded word should rank first ", "pear", topWords.top(1).get(0).getWord());
+		assertEquals("Re-recorded frequency is not correct ", 4, topWords.top(1).get(0).getFrequency());
+	}
+
+	/**
+	 * Creates a word seen the given number of times in a file.
+	 *
+	 * @param text the word
+	 * @param filename the file the word was seen in
+	 * @param frequency the number of times the word was seen
+	 * @return the word
+	 */
+	private Word word(String text, String filename, int frequency) {
+		Word word = new Word(text, filename, 1);
+		for (int i = 1; i < frequency; i++) {
+			word.increaseFrequency();
+		}
+		return word;
+	}
+}
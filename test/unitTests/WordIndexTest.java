@@ -0,0 +1,49 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.Word;
+import appDomain.WordIndex;
+
+/**
+ * Class Description:
+ * Tests for the WordIndex that finds words by lower case form and filename.
+ */
+public class WordIndexTest {
+	// Attributes
+	private WordIndex index;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		index = new WordIndex();
+	}
+
+	/**
+	 * Test method for finding words after the table has grown.
+	 */
+	@Test
+	public void testGet() {
+		for (int i = 0; i < 1000; i++) {
+			Word upper = new Word("Word" + i, "a.txt", i);
+			index.add("Word" + i, upper);
+			index.add("word" + i, upper);
+			index.add("word" + i, new Word("word" + i, "b.txt", i));
+		}
+		assertEquals("Size of index should be ", 3000, index.size());
+		Word found = index.get("word500", "b.txt");
+		assertNotNull("Word was not found ", found);
+		assertEquals("Word found in the wrong file ", "b.txt", found.getFilename());
+		assertEquals("Word is not correct ", "Word500", index.get("word500", "a.txt").getWord());
+		assertSame("Spellings of a word should find the same word ", index.get("Word500", "a.txt"), index.get("word500", "a.txt"));
+		assertNull("Word found in a file it is not in ", index.get("word500", "c.txt"));
+		assertNull("Word found with a spelling it was not indexed under ", index.get("WORD500", "a.txt"));
+		assertNull("Word found with a spelling it was not indexed under ", index.get("Word500", "b.txt"));
+		assertNull("Missing word was found ", index.get("word1000", "a.txt"));
+	}
+}
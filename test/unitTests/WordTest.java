@@ -0,0 +1,81 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.SymbolTable;
+import appDomain.Word;
+
+/**
+ * Class Description:
+ * Tests that the precomputed lower case key of a Word orders and equates
+ * words as comparing their lower cased text and then their filenames does.
+ */
+public class WordTest {
+	// Attributes
+	private SymbolTable symbols;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		symbols = new SymbolTable();
+	}
+
+	/**
+	 * Test method for spellings that only differ by case, which are equal in
+	 * the same file and ordered by filename otherwise.
+	 */
+	@Test
+	public void testMixedCaseCollisions() {
+		Word lower = new Word("apple", "a.txt", 1, symbols);
+		Word title = new Word("Apple", "a.txt", 2, symbols);
+		Word upper = new Word("APPLE", "a.txt", 3);
+		Word other = new Word("aPPle", "b.txt", 4, symbols);
+
+		assertEquals("Spellings that differ by case should be equal ", 0, lower.compareTo(title));
+		assertEquals("Spellings that differ by case should be equal ", 0, title.compareTo(upper));
+		assertEquals("Spellings that differ by case should be equal ", 0, upper.compareTo(lower));
+		assertEquals("Word should be ordered by filename ", -1, title.compareTo(other));
+		assertEquals("Word should be ordered by filename ", 1, other.compareTo(upper));
+		assertEquals("Longer word should come after its prefix ", -1, upper.compareTo(new Word("apples", "a.txt", 1)));
+		assertEquals("Case should not decide the order ", -1, new Word("Zebra", "a.txt", 1).compareTo(new Word("zoo", "a.txt", 1)));
+		assertEquals("Case should not decide the order ", 1, new Word("banana", "a.txt", 1, symbols).compareTo(title));
+	}
+
+	/**
+	 * Test method for every pair of a list of spellings, with and without a
+	 * SymbolTable, against comparing the lower cased text and then the
+	 * filename.
+	 */
+	@Test
+	public void testOrderMatchesLowerCase() {
+		String[] texts = { "apple", "Apple", "APPLE", "apples", "Zebra", "zebra", "zoo", "", "a", "A", "\u00C9clair", "\u00E9clair", "eclair", "Stra\u00DFe", "STRASSE", "i", "I", "\u0130", "\u0131", "word1", "Word10", "word2" };
+		String[] filenames = { "a.txt", "B.txt", "b.txt" };
+		SymbolTable otherSymbols = new SymbolTable();
+		List<Word> words = new ArrayList<Word>();
+		for (String filename : filenames) {
+			for (String text : texts) {
+				words.add(new Word(text, filename, 1));
+				words.add(new Word(text, filename, 1, symbols));
+				words.add(new Word(text, filename, 1, otherSymbols));
+			}
+		}
+		for (Word one : words) {
+			for (Word other : words) {
+				int difference = one.getWord().toLowerCase().compareTo(other.getWord().toLowerCase());
+				if (difference == 0) {
+					difference = one.getFilename().compareTo(other.getFilename());
+				}
+				assertEquals("Order of " + one.getWord() + " in " + one.getFilename() + " and " + other.getWord() + " in " + other.getFilename() + " is not correct ",
+						Integer.signum(difference), one.compareTo(other));
+			}
+		}
+	}
+}